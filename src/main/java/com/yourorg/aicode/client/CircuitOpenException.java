@@ -0,0 +1,15 @@
+package com.yourorg.aicode.client;
+
+import java.io.IOException;
+
+/**
+ * Raised instead of calling Gemini while the {@link GeminiCircuitBreaker} is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.yourorg.aicode.client;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Per-review call options for {@link GeminiClient}: the deadline all provider calls of one
+ * review must finish by, and whether any of them was answered by a hedged request.
+ */
+public final class GeminiCall {
+
+    private final Instant deadline;
+    private volatile boolean hedgeWon;
+
+    private GeminiCall(Instant deadline) {
+        this.deadline = deadline;
+    }
+
+    public static GeminiCall withBudget(Duration budget) {
+        return new GeminiCall(Instant.now().plus(budget));
+    }
+
+    /**
+     * Time left until the deadline, never negative.
+     */
+    public Duration remaining() {
+        Duration left = Duration.between(Instant.now(), deadline);
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+
+    public boolean isExpired() {
+        return !Instant.now().isBefore(deadline);
+    }
+
+    public boolean isHedgeWon() {
+        return hedgeWon;
+    }
+
+    void markHedgeWon() {
+        hedgeWon = true;
+    }
+}
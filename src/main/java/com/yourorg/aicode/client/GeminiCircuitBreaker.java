@@ -0,0 +1,265 @@
+package com.yourorg.aicode.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Circuit breaker for Gemini calls, driven by the error rate and slow-call rate over a
+ * sliding window of the last {@code window-size} calls.
+ * <ul>
+ *   <li>CLOSED: calls pass; the breaker opens once either rate crosses its threshold.</li>
+ *   <li>OPEN: calls are refused without touching the network until {@code open-duration} has passed.</li>
+ *   <li>HALF_OPEN: up to {@code half-open-probes} calls are let through; the breaker closes when
+ *       they all succeed and opens again on the first failed or slow probe.</li>
+ * </ul>
+ */
+@Component
+public class GeminiCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(GeminiCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenProbes;
+
+    // Ring buffer of outcomes of the last windowSize calls; guarded by this
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private Instant stateSince = Instant.now();
+    private Instant openUntil = Instant.MIN;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter notPermitted;
+
+    public GeminiCircuitBreaker(MeterRegistry meterRegistry,
+                                @Value("${generative.circuit-breaker.enabled:true}") boolean enabled,
+                                @Value("${generative.circuit-breaker.window-size:50}") int windowSize,
+                                @Value("${generative.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                @Value("${generative.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                @Value("${generative.circuit-breaker.slow-call-duration:20s}") Duration slowCallDuration,
+                                @Value("${generative.circuit-breaker.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+                                @Value("${generative.circuit-breaker.open-duration:30s}") Duration openDuration,
+                                @Value("${generative.circuit-breaker.half-open-probes:3}") int halfOpenProbes) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.failed = new boolean[this.windowSize];
+        this.slow = new boolean[this.windowSize];
+
+        this.notPermitted = meterRegistry.counter("gemini.circuit.calls", "outcome", "not_permitted");
+        for (State s : State.values()) {
+            meterRegistry.gauge("gemini.circuit.state", Tags.of("state", s.name().toLowerCase(Locale.ROOT)),
+                this, b -> b.getState() == s ? 1 : 0);
+        }
+        meterRegistry.gauge("gemini.circuit.failure.rate", this, GeminiCircuitBreaker::getFailureRate);
+        meterRegistry.gauge("gemini.circuit.slow.call.rate", this, GeminiCircuitBreaker::getSlowCallRate);
+    }
+
+    /**
+     * Whether a call would currently be let through, without reserving a half-open probe.
+     * Used to skip the provider up front while the breaker is open.
+     */
+    public synchronized boolean isCallPermitted() {
+        if (!enabled) {
+            return true;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> !Instant.now().isBefore(openUntil);
+            case HALF_OPEN -> probesStarted < halfOpenProbes;
+        };
+    }
+
+    /**
+     * Reserve a call. Every successful reservation must be followed by {@link #onResult}.
+     *
+     * @return {@code false} when the call must not be made
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (!enabled) {
+            return true;
+        }
+        if (state == State.OPEN && !Instant.now().isBefore(openUntil)) {
+            transitionTo(State.HALF_OPEN);
+        }
+        boolean permitted = switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probesStarted < halfOpenProbes) {
+                    probesStarted++;
+                    yield true;
+                }
+                yield false;
+            }
+        };
+        if (!permitted) {
+            notPermitted.increment();
+        }
+        return permitted;
+    }
+
+    /**
+     * Give back a permission whose call was never made (e.g. no connection slot was free).
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    /**
+     * Record the outcome of a permitted call.
+     *
+     * @param durationNanos time until the provider answered
+     * @param success       {@code false} for transport errors, timeouts, 5xx and 429 responses
+     */
+    public synchronized void onResult(long durationNanos, boolean success) {
+        if (!enabled) {
+            return;
+        }
+        boolean isSlow = durationNanos >= slowCallNanos;
+        meterRegistry.counter("gemini.circuit.calls", "outcome",
+            !success ? "failure" : isSlow ? "slow" : "success").increment();
+
+        switch (state) {
+            case HALF_OPEN -> {
+                if (!success || isSlow) {
+                    transitionTo(State.OPEN);
+                } else if (++probesSucceeded >= halfOpenProbes) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                record(!success, isSlow);
+                if (recorded >= minimumCalls
+                    && (getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold)) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case OPEN -> {
+                // Calls started before the breaker opened; they do not change its state
+            }
+        }
+    }
+
+    /**
+     * Force the breaker back to CLOSED with an empty window.
+     */
+    public synchronized void reset() {
+        transitionTo(State.CLOSED);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return recorded == 0 ? 0 : (double) slowCalls / recorded;
+    }
+
+    /**
+     * Current state and window statistics, as shown on the actuator endpoint.
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("state", state);
+        snapshot.put("since", stateSince);
+        if (state == State.OPEN) {
+            snapshot.put("retryAt", openUntil);
+        }
+        snapshot.put("bufferedCalls", recorded);
+        snapshot.put("failureRate", getFailureRate());
+        snapshot.put("slowCallRate", getSlowCallRate());
+        snapshot.put("failureRateThreshold", failureRateThreshold);
+        snapshot.put("slowCallRateThreshold", slowCallRateThreshold);
+        return snapshot;
+    }
+
+    private void record(boolean isFailure, boolean isSlow) {
+        if (recorded == windowSize) {
+            // Overwrite the oldest outcome
+            if (failed[next]) {
+                failures--;
+            }
+            if (slow[next]) {
+                slowCalls--;
+            }
+        } else {
+            recorded++;
+        }
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        if (isFailure) {
+            failures++;
+        }
+        if (isSlow) {
+            slowCalls++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void transitionTo(State target) {
+        if (state == target && target != State.CLOSED) {
+            return;
+        }
+        State from = state;
+        String failureRate = String.format(Locale.ROOT, "%.2f", getFailureRate());
+        String slowCallRate = String.format(Locale.ROOT, "%.2f", getSlowCallRate());
+        state = target;
+        stateSince = Instant.now();
+        probesStarted = 0;
+        probesSucceeded = 0;
+        if (target == State.OPEN) {
+            openUntil = stateSince.plus(openDuration);
+        } else if (target == State.CLOSED) {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+        if (from != target) {
+            log.warn("Gemini circuit breaker {} -> {} (failure rate {}, slow-call rate {})",
+                from, target, failureRate, slowCallRate);
+            meterRegistry.counter("gemini.circuit.transitions",
+                "from", from.name().toLowerCase(Locale.ROOT), "to", target.name().toLowerCase(Locale.ROOT)).increment();
+        }
+    }
+}
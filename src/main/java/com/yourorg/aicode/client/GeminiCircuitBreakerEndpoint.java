@@ -0,0 +1,34 @@
+package com.yourorg.aicode.client;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/circuitbreaker}: state of the Gemini circuit breaker. A POST closes it
+ * again, e.g. after the provider incident is known to be over.
+ */
+@Component
+@Endpoint(id = "circuitbreaker")
+public class GeminiCircuitBreakerEndpoint {
+
+    private final GeminiCircuitBreaker circuitBreaker;
+
+    public GeminiCircuitBreakerEndpoint(GeminiCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @ReadOperation
+    public Map<String, Object> state() {
+        return circuitBreaker.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reset() {
+        circuitBreaker.reset();
+        return circuitBreaker.snapshot();
+    }
+}
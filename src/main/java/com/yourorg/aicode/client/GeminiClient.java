@@ -0,0 +1,678 @@
+package com.yourorg.aicode.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Long-lived client for the Google Generative Language (Gemini) API.
+ * One {@link HttpClient} is shared by all reviews so TLS sessions and HTTP/2
+ * connections are reused, and its selector/completion work runs on a dedicated,
+ * bounded executor. In-flight requests are capped per host, and calls are refused up front
+ * while the {@link GeminiCircuitBreaker} is open.
+ * <p>
+ * Every call is bounded by the deadline of its {@link GeminiCall}. With hedging enabled, a
+ * second identical request is sent when the first has not answered within the configured
+ * percentile of recent latencies, and whichever succeeds first is used.
+ */
+@Component
+public class GeminiClient {
+
+    // Below this many latency samples the hedge waits for generative.hedge.min-delay
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int MAX_ERROR_BODY_BYTES = 4096;
+
+    private final HttpClient httpClient;
+    private final ThreadPoolExecutor executor;
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final String model;
+    private final Duration requestTimeout;
+    private final int maxInFlightPerHost;
+    private final Duration acquireTimeout;
+
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final Duration hedgeMinDelay;
+
+    // Request bodies of at least gzipMinBytes are sent with Content-Encoding: gzip
+    private final boolean gzipRequests;
+    private final int gzipMinBytes;
+
+    // Recent successful call latencies for the hedge delay; guarded by itself
+    private final long[] recentLatencies = new long[256];
+    private int latencySamples;
+    private int nextLatency;
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final GeminiCircuitBreaker circuitBreaker;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer latency;
+    private final Counter rejected;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter hedgesSkipped;
+
+    public GeminiClient(MeterRegistry meterRegistry,
+                        GeminiCircuitBreaker circuitBreaker,
+                        @Value("${generative.base-url:https://generativelanguage.googleapis.com/v1beta}") String baseUrl,
+                        @Value("${generative.api-key:}") String apiKey,
+                        @Value("${generative.model:gemini-2.0-flash-exp}") String model,
+                        @Value("${generative.http.connect-timeout:5s}") Duration connectTimeout,
+                        @Value("${generative.http.request-timeout:60s}") Duration requestTimeout,
+                        @Value("${generative.http.max-in-flight-per-host:32}") int maxInFlightPerHost,
+                        @Value("${generative.http.acquire-timeout:10s}") Duration acquireTimeout,
+                        @Value("${generative.http.executor-threads:4}") int executorThreads,
+                        @Value("${generative.hedge.enabled:false}") boolean hedgingEnabled,
+                        @Value("${generative.hedge.percentile:0.95}") double hedgePercentile,
+                        @Value("${generative.hedge.min-delay:2s}") Duration hedgeMinDelay,
+                        @Value("${generative.http.gzip-requests:false}") boolean gzipRequests,
+                        @Value("${generative.http.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.apiKey = apiKey;
+        this.model = model;
+        this.requestTimeout = requestTimeout;
+        this.maxInFlightPerHost = Math.max(1, maxInFlightPerHost);
+        this.acquireTimeout = acquireTimeout;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = Math.min(1.0, Math.max(0.0, hedgePercentile));
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.gzipRequests = gzipRequests;
+        this.gzipMinBytes = gzipMinBytes;
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(executorThreads, executorThreads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "gemini-http-" + threadIds.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(executor)
+            .build();
+
+        this.latency = Timer.builder("gemini.client.latency")
+            .description("Round-trip time of Gemini API calls")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.rejected = meterRegistry.counter("gemini.client.requests", "outcome", "rejected", "version", "none");
+        this.hedgesSent = meterRegistry.counter("gemini.client.hedges", "outcome", "sent");
+        this.hedgesWon = meterRegistry.counter("gemini.client.hedges", "outcome", "won");
+        this.hedgesSkipped = meterRegistry.counter("gemini.client.hedges", "outcome", "skipped");
+
+        meterRegistry.gauge("gemini.client.executor.active", executor, ThreadPoolExecutor::getActiveCount);
+        meterRegistry.gauge("gemini.client.executor.pool.size", executor, ThreadPoolExecutor::getPoolSize);
+        meterRegistry.gauge("gemini.client.executor.queued", executor, e -> e.getQueue().size());
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    /**
+     * Configured and not shut off by the circuit breaker; callers use this to go straight to
+     * their fallback while the provider is known to be failing.
+     */
+    public boolean isAvailable() {
+        return isConfigured() && circuitBreaker.isCallPermitted();
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * Call {@code models/{model}:generateContent} with the given JSON request body and hand
+     * the text of the first candidate to {@code reader}. The response is parsed as it is read
+     * from the connection, so neither the body nor a JSON tree of it is ever materialized.
+     * Non-2xx responses are raised as {@link IOException}, running past the deadline of
+     * {@code call} as {@link HttpTimeoutException}.
+     */
+    public <T> T generateContent(String jsonBody, GeminiCall call, CandidateTextReader<T> reader) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/models/" + model + ":generateContent?key=" + apiKey))
+            .timeout(timeoutFor(call))
+            .header("Content-Type", "application/json");
+        HttpRequest request = builder.POST(body(builder, jsonBody)).build();
+
+        HttpResponse<InputStream> response = hedgingEnabled
+            ? sendHedged(request, call)
+            : send(request);
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("Gemini API error: " + response.statusCode() + " -> "
+                    + new String(body.readNBytes(MAX_ERROR_BODY_BYTES), StandardCharsets.UTF_8));
+            }
+            return readCandidateText(body, reader);
+        }
+    }
+
+    /**
+     * Request body publisher; large bodies are gzip-compressed when enabled.
+     */
+    private HttpRequest.BodyPublisher body(HttpRequest.Builder builder, String jsonBody) throws IOException {
+        byte[] bytes = jsonBody.getBytes(StandardCharsets.UTF_8);
+        if (!gzipRequests || bytes.length < gzipMinBytes) {
+            return HttpRequest.BodyPublishers.ofByteArray(bytes);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        builder.header("Content-Encoding", "gzip");
+        return HttpRequest.BodyPublishers.ofByteArray(compressed.toByteArray());
+    }
+
+    /**
+     * Walk {@code candidates[0].content.parts[0].text} with a streaming parser, skipping
+     * everything else, and pass the text to {@code reader} straight from the parser's buffer.
+     */
+    private <T> T readCandidateText(InputStream body, CandidateTextReader<T> reader) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT
+                && enterField(parser, "candidates") && parser.currentToken() == JsonToken.START_ARRAY
+                && parser.nextToken() == JsonToken.START_OBJECT
+                && enterField(parser, "content") && parser.currentToken() == JsonToken.START_OBJECT
+                && enterField(parser, "parts") && parser.currentToken() == JsonToken.START_ARRAY
+                && parser.nextToken() == JsonToken.START_OBJECT
+                && enterField(parser, "text") && parser.currentToken() == JsonToken.VALUE_STRING) {
+                return reader.read(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            }
+            throw new IOException("No candidate text in Gemini response");
+        }
+    }
+
+    /**
+     * Advance within the current object to the value of field {@code name}.
+     *
+     * @return false if the object has no such field
+     */
+    private static boolean enterField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean match = name.equals(parser.currentName());
+            parser.nextToken();
+            if (match) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Call {@code models/{model}:streamGenerateContent} (server-sent events) and hand every
+     * generated text fragment to {@code onText} as soon as it arrives. Returns when the
+     * stream is complete; a stream still running at the deadline of {@code call} is cut off
+     * and raised as {@link HttpTimeoutException}.
+     */
+    public void streamGenerateContent(String jsonBody, GeminiCall call, TextConsumer onText) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/models/" + model + ":streamGenerateContent?alt=sse&key=" + apiKey))
+            .timeout(timeoutFor(call))
+            .header("Content-Type", "application/json")
+            .header("Accept", "text/event-stream");
+        HttpRequest request = builder.POST(body(builder, jsonBody)).build();
+
+        Semaphore permits = acquire(request);
+        long start = System.nanoTime();
+        long firstByte = 0;
+        boolean providerOk = false;
+        String outcome = "error";
+        String version = "none";
+        // The permit is held until the whole event stream has been consumed
+        try {
+            // The request timeout only covers the response headers
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            // Streams are long by nature; the breaker judges latency by time to the response headers
+            firstByte = System.nanoTime() - start;
+            providerOk = isProviderHealthy(response.statusCode());
+            version = versionTag(response.version());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() / 100 != 2) {
+                    throw new IOException("Gemini API error: " + response.statusCode() + " -> "
+                        + new String(body.readNBytes(MAX_ERROR_BODY_BYTES), StandardCharsets.UTF_8));
+                }
+                // Closing the body at the deadline wakes up a read blocked on a stalled stream
+                CompletableFuture.runAsync(() -> closeQuietly(body),
+                    CompletableFuture.delayedExecutor(call.remaining().toNanos(), TimeUnit.NANOSECONDS, executor));
+                readEvents(body, call, onText);
+            }
+            outcome = "success";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted: " + e.getMessage(), e);
+        } finally {
+            permits.release();
+            circuitBreaker.onResult(firstByte == 0 ? System.nanoTime() - start : firstByte, providerOk);
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("gemini.client.requests", "outcome", outcome, "version", version).increment();
+        }
+    }
+
+    private void readEvents(InputStream body, GeminiCall call, TextConsumer onText) throws IOException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (call.isExpired()) {
+                    break;
+                }
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                JsonNode chunk = objectMapper.readTree(line.substring(5).trim());
+                for (JsonNode part : chunk.path("candidates").path(0).path("content").path("parts")) {
+                    String text = part.path("text").asText("");
+                    if (!text.isEmpty()) {
+                        onText.accept(text);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (!call.isExpired()) {
+                throw e;
+            }
+        }
+        if (call.isExpired()) {
+            throw new HttpTimeoutException("Review deadline exceeded while streaming from Gemini");
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Send {@code request}. The connection slot is held, and the call reported, until the
+     * response body is closed.
+     */
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException {
+        Exchange exchange = new Exchange(acquire(request));
+        try {
+            return httpClient.send(request, exchange.bodyHandler());
+        } catch (InterruptedException e) {
+            exchange.fail();
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            exchange.fail();
+            throw e;
+        }
+    }
+
+    /**
+     * Send {@code request}; if it has not answered after the hedge delay, send it a second
+     * time and return the first successful response, cancelling the other one.
+     */
+    private HttpResponse<InputStream> sendHedged(HttpRequest request, GeminiCall call) throws IOException {
+        CompletableFuture<HttpResponse<InputStream>> primary = sendAsync(request, acquire(request), call);
+        long delay = Math.min(hedgeDelayNanos(), call.remaining().toNanos());
+        try {
+            return primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Slower than the hedge percentile: hedge below
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            discard(primary);
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted: " + e.getMessage(), e);
+        }
+
+        if (call.isExpired()) {
+            discard(primary);
+            throw new HttpTimeoutException("Review deadline exceeded waiting for Gemini");
+        }
+        CompletableFuture<HttpResponse<InputStream>> hedge = trySendHedge(request, call);
+        if (hedge == null) {
+            hedgesSkipped.increment();
+            return await(List.of(primary), call);
+        }
+        hedgesSent.increment();
+        HttpResponse<InputStream> response = await(List.of(primary, hedge), call);
+        if (hedge.isDone() && !hedge.isCancelled() && !hedge.isCompletedExceptionally() && hedge.join() == response) {
+            hedgesWon.increment();
+            call.markHedgeWon();
+        }
+        return response;
+    }
+
+    /**
+     * Wait until one of {@code calls} succeeds (or all have failed) within the deadline, and
+     * cancel the others.
+     */
+    private HttpResponse<InputStream> await(List<CompletableFuture<HttpResponse<InputStream>>> calls, GeminiCall call)
+            throws IOException {
+        CompletableFuture<CompletableFuture<HttpResponse<InputStream>>> first = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(calls.size());
+        for (CompletableFuture<HttpResponse<InputStream>> c : calls) {
+            c.whenComplete((response, error) -> {
+                boolean success = error == null && response.statusCode() / 100 == 2;
+                // A failure only wins once every call has failed, so its error is reported
+                if (success || pending.decrementAndGet() == 0) {
+                    first.complete(c);
+                }
+            });
+        }
+        try {
+            CompletableFuture<HttpResponse<InputStream>> winner = first.get(call.remaining().toNanos(), TimeUnit.NANOSECONDS);
+            calls.stream().filter(c -> c != winner).forEach(GeminiClient::discard);
+            return winner.get();
+        } catch (TimeoutException e) {
+            calls.forEach(GeminiClient::discard);
+            throw new HttpTimeoutException("Review deadline exceeded waiting for Gemini");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            calls.forEach(GeminiClient::discard);
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Abort a call that lost or is no longer wanted; if its headers already arrived, close the
+     * body so the connection is released.
+     */
+    private static void discard(CompletableFuture<HttpResponse<InputStream>> call) {
+        call.cancel(true);
+        call.thenAccept(response -> {
+            try {
+                response.body().close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        });
+    }
+
+    /**
+     * Start the hedge request, unless the circuit breaker or the per-host limit says no; a
+     * hedge never waits for a connection slot.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> trySendHedge(HttpRequest request, GeminiCall call) throws IOException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return null;
+        }
+        Semaphore permits = permitsFor(request.uri().getHost());
+        if (!permits.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            return null;
+        }
+        HttpRequest hedgeRequest = HttpRequest.newBuilder(request, (name, value) -> true)
+            .timeout(timeoutFor(call))
+            .build();
+        return sendAsync(hedgeRequest, permits, call);
+    }
+
+    /**
+     * Asynchronous send holding an already acquired connection slot until completion.
+     * Cancelling the returned future aborts the exchange; a call cancelled because the
+     * deadline of {@code call} passed counts as a failure.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request, Semaphore permits, GeminiCall call) {
+        Exchange exchange = new Exchange(permits);
+        CompletableFuture<HttpResponse<InputStream>> future = httpClient.sendAsync(request, exchange.bodyHandler());
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                // Finished when the winner's body is read or a loser's body is discarded
+                return;
+            }
+            if (error instanceof CancellationException && !call.isExpired()) {
+                // The losing side of a hedge; says nothing about the provider. Calls cut off at
+                // the deadline fall through: a provider slower than the deadline must open the breaker
+                exchange.cancel();
+                return;
+            }
+            exchange.fail();
+        });
+        return future;
+    }
+
+    /**
+     * One call to the provider, holding a connection slot and a circuit breaker permission
+     * until it finishes: when its response body is closed, or when it fails or is cancelled
+     * without a response. Latency and breaker results thus include reading the body.
+     */
+    private final class Exchange {
+
+        private final Semaphore permits;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        Exchange(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        /**
+         * Streams the response body and finishes the exchange when it is closed; a failed read
+         * counts as a failed call.
+         */
+        HttpResponse.BodyHandler<InputStream> bodyHandler() {
+            return info -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+                body -> new FilterInputStream(body) {
+                    private volatile boolean readFailed;
+
+                    @Override
+                    public int read() throws IOException {
+                        try {
+                            return super.read();
+                        } catch (IOException e) {
+                            readFailed = true;
+                            throw e;
+                        }
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        try {
+                            return super.read(b, off, len);
+                        } catch (IOException e) {
+                            readFailed = true;
+                            throw e;
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            finish(info.statusCode(), info.version(), readFailed);
+                        }
+                    }
+                });
+        }
+
+        void fail() {
+            if (finished.compareAndSet(false, true)) {
+                permits.release();
+                long elapsed = System.nanoTime() - start;
+                circuitBreaker.onResult(elapsed, false);
+                latency.record(elapsed, TimeUnit.NANOSECONDS);
+                meterRegistry.counter("gemini.client.requests", "outcome", "error", "version", "none").increment();
+            }
+        }
+
+        void cancel() {
+            if (finished.compareAndSet(false, true)) {
+                permits.release();
+                circuitBreaker.releasePermission();
+                meterRegistry.counter("gemini.client.requests", "outcome", "cancelled", "version", "none").increment();
+            }
+        }
+
+        private void finish(int statusCode, HttpClient.Version version, boolean readFailed) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            permits.release();
+            long elapsed = System.nanoTime() - start;
+            boolean success = statusCode / 100 == 2 && !readFailed;
+            circuitBreaker.onResult(elapsed, isProviderHealthy(statusCode) && !readFailed);
+            latency.record(elapsed, TimeUnit.NANOSECONDS);
+            if (success) {
+                recordLatencySample(elapsed);
+            }
+            meterRegistry.counter("gemini.client.requests", "outcome", success ? "success" : "error",
+                "version", versionTag(version)).increment();
+        }
+    }
+
+    /**
+     * Request timeout: the configured one, shortened to what is left of the call's deadline.
+     */
+    private Duration timeoutFor(GeminiCall call) throws HttpTimeoutException {
+        Duration remaining = call.remaining();
+        if (remaining.isZero()) {
+            throw new HttpTimeoutException("Review deadline exceeded before calling Gemini");
+        }
+        return remaining.compareTo(requestTimeout) < 0 ? remaining : requestTimeout;
+    }
+
+    private long hedgeDelayNanos() {
+        synchronized (recentLatencies) {
+            if (latencySamples < MIN_LATENCY_SAMPLES) {
+                return hedgeMinDelay.toNanos();
+            }
+            long[] sorted = Arrays.copyOf(recentLatencies, latencySamples);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(latencySamples - 1, Math.max(0, Math.ceil(hedgePercentile * latencySamples) - 1));
+            return Math.max(sorted[index], hedgeMinDelay.toNanos());
+        }
+    }
+
+    private void recordLatencySample(long nanos) {
+        synchronized (recentLatencies) {
+            recentLatencies[nextLatency] = nanos;
+            nextLatency = (nextLatency + 1) % recentLatencies.length;
+            latencySamples = Math.min(latencySamples + 1, recentLatencies.length);
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+        return cause instanceof IOException io ? io : new IOException("Gemini call failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Reserve a circuit breaker permission and a per-host connection slot. On success the
+     * caller must release the slot and report the outcome to the circuit breaker.
+     */
+    private Semaphore acquire(HttpRequest request) throws IOException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new CircuitOpenException("Gemini circuit breaker is " + circuitBreaker.getState());
+        }
+        Semaphore permits = permitsFor(request.uri().getHost());
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                rejected.increment();
+                throw new IOException("Too many in-flight Gemini requests (limit " + maxInFlightPerHost + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a Gemini connection slot", e);
+        } finally {
+            if (!acquired) {
+                circuitBreaker.releasePermission();
+            }
+        }
+        return permits;
+    }
+
+    /**
+     * Client errors other than rate limiting say nothing about the provider's health.
+     */
+    private static boolean isProviderHealthy(int statusCode) {
+        return statusCode < 500 && statusCode != 429;
+    }
+
+    private static String versionTag(HttpClient.Version version) {
+        return version == HttpClient.Version.HTTP_2 ? "h2" : "http1.1";
+    }
+
+    private Semaphore permitsFor(String host) {
+        return hostPermits.computeIfAbsent(host, h -> {
+            Semaphore semaphore = new Semaphore(maxInFlightPerHost);
+            meterRegistry.gauge("gemini.client.in.flight", Tags.of("host", h),
+                semaphore, s -> maxInFlightPerHost - s.availablePermits());
+            return semaphore;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Consumes the generated text of a {@link #generateContent} call. The characters are only
+     * valid for the duration of the call.
+     */
+    @FunctionalInterface
+    public interface CandidateTextReader<T> {
+        T read(char[] text, int offset, int length) throws IOException;
+    }
+
+    /**
+     * Receives generated text fragments from a streaming call.
+     */
+    @FunctionalInterface
+    public interface TextConsumer {
+        void accept(String text) throws IOException;
+    }
+}
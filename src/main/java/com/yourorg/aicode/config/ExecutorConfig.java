@@ -0,0 +1,128 @@
+package com.yourorg.aicode.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used for review work outside of servlet threads.
+ * Pools are bounded so that they can be sized independently of the HTTP thread pool.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Worker pool for asynchronous review jobs. Runs on virtual threads when the JVM
+     * supports them; the pool size still bounds concurrent provider calls.
+     */
+    @Bean(name = "reviewJobExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor reviewJobExecutor(MeterRegistry meterRegistry,
+                                                @Value("${review.jobs.workers:8}") int workers,
+                                                @Value("${review.jobs.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), workerThreadFactory("review-job-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        meterRegistry.gauge("review.jobs.queue.depth", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("review.jobs.active", executor, ThreadPoolExecutor::getActiveCount);
+        meterRegistry.gauge("review.jobs.workers", executor, ThreadPoolExecutor::getMaximumPoolSize);
+        return executor;
+    }
+
+    /**
+     * Shared pool for fanning out the files of a batch review. Each batch additionally limits
+     * its own in-flight reviews ({@code review.batch.concurrency}) so one large batch cannot
+     * occupy every worker.
+     */
+    @Bean(name = "reviewFanoutExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor reviewFanoutExecutor(MeterRegistry meterRegistry,
+                                                   @Value("${review.batch.workers:16}") int workers) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), workerThreadFactory("review-fanout-"));
+        executor.allowCoreThreadTimeOut(true);
+
+        meterRegistry.gauge("review.batch.queue.depth", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("review.batch.active", executor, ThreadPoolExecutor::getActiveCount);
+        return executor;
+    }
+
+    /**
+     * Pool for reviewing the chunks of one large file in parallel. Kept apart from the job and
+     * fan-out pools because their tasks block on these chunk reviews.
+     */
+    @Bean(name = "reviewChunkExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor reviewChunkExecutor(MeterRegistry meterRegistry,
+                                                  @Value("${review.chunking.workers:8}") int workers) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), workerThreadFactory("review-chunk-"));
+        executor.allowCoreThreadTimeOut(true);
+
+        meterRegistry.gauge("review.chunking.queue.depth", executor, e -> e.getQueue().size());
+        return executor;
+    }
+
+    /**
+     * Pool for the local rule analysis that runs alongside each provider call. CPU-bound, so it
+     * uses platform threads sized to the cores; kept off the common ForkJoinPool, which the
+     * rule engine's parallel segment scans use.
+     */
+    @Bean(name = "ruleAnalysisExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor ruleAnalysisExecutor(MeterRegistry meterRegistry,
+                                                   @Value("${review.rules.workers:0}") int workers) {
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger ids = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "rule-analysis-" + ids.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+        executor.allowCoreThreadTimeOut(true);
+
+        meterRegistry.gauge("review.rules.queue.depth", executor, e -> e.getQueue().size());
+        return executor;
+    }
+
+    /**
+     * Single thread for size-triggered write-behind flushes. Holds at most one waiting flush,
+     * which picks up everything queued by then, so further triggers are discarded.
+     */
+    @Bean(name = "submissionFlushExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor submissionFlushExecutor() {
+        AtomicInteger ids = new AtomicInteger();
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), r -> {
+            Thread t = new Thread(r, "submission-flush-" + ids.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Virtual-thread factory when running on a JDK that has them (21+), otherwise
+     * named daemon platform threads. Looked up reflectively so the build stays on Java 17.
+     */
+    public static ThreadFactory workerThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger ids = new AtomicInteger();
+            return r -> {
+                Thread t = new Thread(r, prefix + ids.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            };
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.yourorg.aicode.config;
 
+import com.yourorg.aicode.security.AccessTokenRevocations;
 import com.yourorg.aicode.service.RefreshTokenService;
+import com.yourorg.aicode.service.ReviewCacheService;
+import com.yourorg.aicode.service.ReviewJobService;
+import com.yourorg.aicode.service.SubmissionPartitionService;
+import com.yourorg.aicode.service.SubmissionWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -17,9 +22,63 @@ public class ScheduledTasks {
     @Autowired
     private RefreshTokenService refreshTokenService;
     
+    @Autowired
+    private AccessTokenRevocations accessTokenRevocations;
+    
+    @Autowired
+    private ReviewCacheService reviewCacheService;
+    
+    @Autowired
+    private ReviewJobService reviewJobService;
+    
+    @Autowired
+    private SubmissionWriter submissionWriter;
+    
+    @Autowired
+    private SubmissionPartitionService submissionPartitionService;
+    
     // Run every day at 2 AM
     @Scheduled(cron = "0 0 2 * * ?")
     public void cleanupExpiredTokens() {
         refreshTokenService.deleteExpiredTokens();
+        accessTokenRevocations.deleteExpired();
+    }
+    
+    // Pick up access tokens revoked on other nodes
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.refresh-interval:10s}")
+    public void refreshAccessTokenRevocations() {
+        accessTokenRevocations.refresh();
+    }
+    
+    // Rebuild the revocation filter without expired entries, sized for the current revocations
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.rebuild-interval:15m}",
+               initialDelayString = "${app.jwt.revocation.rebuild-interval:15m}")
+    public void rebuildAccessTokenRevocations() {
+        accessTokenRevocations.rebuild();
+    }
+    
+    // Run every day at 3 AM
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void cleanupExpiredReviewCache() {
+        reviewCacheService.deleteExpiredEntries();
+    }
+    
+    // Run every 5 minutes
+    @Scheduled(fixedDelay = 300000)
+    public void purgeFinishedReviewJobs() {
+        reviewJobService.purgeFinishedJobs();
+    }
+    
+    // Run every day at 4 AM: create upcoming submission partitions, archive and drop expired ones
+    @Scheduled(cron = "${review.retention.cron:0 0 4 * * ?}")
+    public void maintainSubmissionPartitions() {
+        submissionPartitionService.ensurePartitions();
+        submissionPartitionService.applyRetention();
+    }
+    
+    // Time trigger of write-behind persistence (no-op when nothing is queued)
+    @Scheduled(fixedDelayString = "${review.persistence.flush-interval:200ms}")
+    public void flushPendingSubmissions() {
+        submissionWriter.flush();
     }
 }
@@ -4,6 +4,7 @@ import com.yourorg.aicode.security.CustomUserDetailsService;
 import com.yourorg.aicode.security.JwtAuthenticationFilter;
 import com.yourorg.aicode.security.oauth2.CustomOAuth2UserService;
 import com.yourorg.aicode.security.oauth2.OAuth2AuthenticationSuccessHandler;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -73,10 +74,15 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches (SSE streaming) complete a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/", "/error", "/favicon.ico").permitAll()
                 .requestMatchers("/api/auth/login", "/api/auth/register", "/api/auth/refresh").permitAll()
                 .requestMatchers("/oauth2/**").permitAll()
                 .requestMatchers("/login/oauth2/**").permitAll()
+                // Metrics and the circuit breaker reset are for operators only
+                .requestMatchers("/actuator/health", "/actuator/info").authenticated()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .oauth2Login(oauth2 -> oauth2
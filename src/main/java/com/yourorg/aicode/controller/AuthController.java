@@ -76,14 +76,15 @@ public class AuthController {
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest refreshTokenRequest,
+                                    HttpServletRequest request) {
         try {
-            if (refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null) {
-                authService.logout(refreshTokenRequest.getRefreshToken());
-            }
+            authService.logout(refreshTokenRequest == null ? null : refreshTokenRequest.getRefreshToken(), request);
             return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
         } catch (Exception e) {
-            return ResponseEntity.ok(Map.of("message", "Logged out"));
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
     }
     
@@ -29,11 +29,35 @@
 
 package com.yourorg.aicode.controller;
 
+import com.yourorg.aicode.model.dto.BatchReviewResponse;
+import com.yourorg.aicode.model.dto.ReviewHistoryPage;
+import com.yourorg.aicode.model.dto.ReviewJobResponse;
 import com.yourorg.aicode.model.dto.ReviewRequest;
 import com.yourorg.aicode.model.dto.ReviewResponse;
 import com.yourorg.aicode.service.CodeReviewService;
+import com.yourorg.aicode.service.ReviewBatchService;
+import com.yourorg.aicode.service.ReviewHistoryService;
+import com.yourorg.aicode.service.ReviewJobService;
+import com.yourorg.aicode.service.ReviewSearchService;
+import com.yourorg.aicode.service.ReviewStatsService;
+import com.yourorg.aicode.service.ReviewStreamService;
+import com.yourorg.aicode.service.ScoreRollupService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST controller for code review endpoints.
@@ -43,12 +67,276 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/reviews")
 public class CodeReviewController {
 
+    /** Optional provider time budget per review, in milliseconds. */
+    static final String DEADLINE_HEADER = "X-Review-Deadline-Ms";
+
     private final CodeReviewService service;
 
-    public CodeReviewController(CodeReviewService service) { this.service = service; }
+    private final ReviewJobService jobService;
+
+    private final ReviewStreamService streamService;
+
+    private final ReviewBatchService batchService;
+
+    private final ReviewStatsService statsService;
+
+    private final ReviewHistoryService historyService;
+
+    private final ReviewSearchService searchService;
+
+    private final ScoreRollupService scoreRollupService;
+
+    public CodeReviewController(CodeReviewService service, ReviewJobService jobService,
+                                ReviewStreamService streamService, ReviewBatchService batchService,
+                                ReviewStatsService statsService, ReviewHistoryService historyService,
+                                ReviewSearchService searchService, ScoreRollupService scoreRollupService) {
+        this.service = service;
+        this.jobService = jobService;
+        this.streamService = streamService;
+        this.batchService = batchService;
+        this.statsService = statsService;
+        this.historyService = historyService;
+        this.searchService = searchService;
+        this.scoreRollupService = scoreRollupService;
+    }
 
     @PostMapping
-    public ResponseEntity<ReviewResponse> review(@RequestBody ReviewRequest request) {
-        return ResponseEntity.ok(service.review(request));
+    public ResponseEntity<?> review(@RequestBody ReviewRequest request,
+                                    @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        request.setDeadlineMs(deadlineMs);
+        request.setOwner(currentUser());
+        try {
+            return ResponseEntity.ok(service.review(request));
+        } catch (IllegalArgumentException e) {
+            // Unknown base submission or a diff that does not apply to it
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * The current user's past reviews, newest first, without code or review body. Pass the
+     * returned {@code nextCursor} as {@code cursor} for the next page. Pages carry an ETag and
+     * answer {@code If-None-Match} with 304.
+     */
+    @GetMapping
+    public ResponseEntity<?> history(@RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                     WebRequest webRequest) {
+        String owner = currentUser();
+        if (owner == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
+        }
+        ReviewHistoryPage page;
+        try {
+            page = historyService.page(owner, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        String etag = historyService.etag(page);
+        if (webRequest.checkNotModified(etag)) {
+            // Status 304 and the ETag header are already set on the response
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(page);
+    }
+
+    /**
+     * Search the current user's reviews and code, best match first, with highlighted snippets
+     * of the review text.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(value = "language", required = false) String language,
+                                    @RequestParam(value = "days", defaultValue = "30") int days,
+                                    @RequestParam(value = "page", defaultValue = "0") int page,
+                                    @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        String owner = currentUser();
+        if (owner == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
+        }
+        try {
+            return ResponseEntity.ok(searchService.search(owner, query, language, days, page, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Queue a review on the background worker pool and return its job id immediately.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@RequestBody ReviewRequest request,
+                                       @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        request.setDeadlineMs(deadlineMs);
+        request.setOwner(currentUser());
+        try {
+            String jobId = jobService.submit(request);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/reviews/jobs/" + jobId))
+                .body(jobService.getJob(jobId, request.getOwner()).orElse(null));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(Map.of("message", "Review queue is full, retry later"));
+        }
+    }
+
+    /**
+     * Status and result of a job; 404 unless it was submitted by the current user.
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReviewJobResponse> getJob(@PathVariable String id) {
+        return jobService.getJob(id, currentUser())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stream the review as server-sent events: one event per review field as soon as the
+     * model has produced it, then a {@code complete} event with the stored submission id.
+     */
+    @PostMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> stream(@RequestBody ReviewRequest request,
+                                    @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        request.setDeadlineMs(deadlineMs);
+        request.setOwner(currentUser());
+        try {
+            return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(streamService.open(request));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("message", "Review queue is full, retry later"));
+        }
+    }
+
+    /**
+     * Review many files in one call. Results are returned in input order with a size-weighted
+     * aggregate score; all submissions are stored in one transaction.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> reviewBatch(@RequestBody List<ReviewRequest> requests,
+                                         @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        if (requests.size() > batchService.getMaxItems()) {
+            return tooManyFiles();
+        }
+        String owner = currentUser();
+        requests.forEach(request -> {
+            request.setDeadlineMs(deadlineMs);
+            request.setOwner(owner);
+        });
+        return ResponseEntity.ok(batchService.reviewBatch(requests, null, null));
+    }
+
+    /**
+     * Multipart variant of {@link #reviewBatch(List, Long)}: one part per file, language inferred
+     * from the file extension.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> reviewBatchUpload(@RequestParam("files") List<MultipartFile> files,
+                                               @RequestParam(value = "author", required = false) String author,
+                                               @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs)
+            throws IOException {
+        if (files.size() > batchService.getMaxItems()) {
+            return tooManyFiles();
+        }
+        List<ReviewRequest> requests = new ArrayList<>(files.size());
+        List<String> fileNames = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            ReviewRequest request = new ReviewRequest();
+            request.setAuthor(author);
+            request.setOwner(currentUser());
+            request.setDeadlineMs(deadlineMs);
+            request.setCode(new String(file.getBytes(), StandardCharsets.UTF_8));
+            request.setLanguage(batchService.languageFor(file.getOriginalFilename()));
+            requests.add(request);
+            fileNames.add(file.getOriginalFilename());
+        }
+        BatchReviewResponse response = batchService.reviewBatch(requests, fileNames, null);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Batch review streamed as server-sent events: one {@code result} event per file as soon
+     * as it finishes, then a {@code complete} event with the aggregate.
+     */
+    @PostMapping(path = "/batch/stream", consumes = MediaType.APPLICATION_JSON_VALUE,
+                 produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamBatch(@RequestBody List<ReviewRequest> requests,
+                                         @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        if (requests.size() > batchService.getMaxItems()) {
+            return tooManyFiles();
+        }
+        String owner = currentUser();
+        requests.forEach(request -> {
+            request.setDeadlineMs(deadlineMs);
+            request.setOwner(owner);
+        });
+        try {
+            return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(streamService.openBatch(requests, null));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("message", "Review queue is full, retry later"));
+        }
+    }
+
+    /**
+     * Most frequent finding categories of the last {@code days} days, for one author or everyone.
+     */
+    @GetMapping("/stats/categories")
+    public ResponseEntity<?> topFindingCategories(@RequestParam(value = "author", required = false) String author,
+                                                  @RequestParam(value = "days", defaultValue = "7") int days,
+                                                  @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(statsService.topFindingCategories(author, days, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Local rules that fired most often in the last {@code days} days, for one author or everyone.
+     */
+    @GetMapping("/stats/rules")
+    public ResponseEntity<?> topLocalRules(@RequestParam(value = "author", required = false) String author,
+                                           @RequestParam(value = "days", defaultValue = "7") int days,
+                                           @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(statsService.topLocalRules(author, days, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Score average, percentiles and histogram of the last {@code weeks} weeks: overall, per week,
+     * per author and per language, optionally narrowed to one author and/or language.
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<?> scoreAnalytics(@RequestParam(value = "author", required = false) String author,
+                                            @RequestParam(value = "language", required = false) String language,
+                                            @RequestParam(value = "weeks", defaultValue = "12") int weeks) {
+        try {
+            return ResponseEntity.ok(scoreRollupService.analytics(author, language, weeks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() ? null : authentication.getName();
+    }
+
+    private ResponseEntity<?> tooManyFiles() {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("message", "Batch exceeds the limit of " + batchService.getMaxItems() + " files"));
     }
 }
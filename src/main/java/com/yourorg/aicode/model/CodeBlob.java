@@ -0,0 +1,102 @@
+package com.yourorg.aicode.model;
+
+import jakarta.persistence.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Submitted source code, stored once per distinct content and compressed.
+ * Rows are keyed by the SHA-256 of the UTF-8 code and never change once written.
+ */
+@Entity
+@Table(name = "code_blobs")
+public class CodeBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 16)
+    private String compression;
+
+    @Column(nullable = false)
+    private byte[] data;
+
+    // UTF-8 bytes before compression
+    @Column(nullable = false)
+    private int originalLength;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Transient
+    private String text;
+
+    /**
+     * Blob for {@code code}, compressed and ready to insert.
+     */
+    public static CodeBlob of(String code) {
+        byte[] raw = code.getBytes(StandardCharsets.UTF_8);
+        CodeBlobCodec.Encoded encoded = CodeBlobCodec.encode(raw);
+        CodeBlob blob = new CodeBlob();
+        blob.hash = hash(raw);
+        blob.compression = encoded.compression();
+        blob.data = encoded.data();
+        blob.originalLength = raw.length;
+        blob.createdAt = Instant.now();
+        blob.text = code;
+        return blob;
+    }
+
+    /**
+     * Code of a blob read outside JPA, e.g. by an archive export.
+     */
+    public static String decode(String compression, byte[] data, int originalLength) {
+        return CodeBlobCodec.decode(compression, data, originalLength);
+    }
+
+    public static String hashOf(String code) {
+        return hash(code.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hash(byte[] raw) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The code, decompressed on first access.
+     */
+    public String getText() {
+        if (text == null) {
+            text = CodeBlobCodec.decode(compression, data, originalLength);
+        }
+        return text;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getOriginalLength() {
+        return originalLength;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
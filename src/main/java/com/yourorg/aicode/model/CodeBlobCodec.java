@@ -0,0 +1,95 @@
+package com.yourorg.aicode.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression of {@link CodeBlob} contents. Deflate is primed with a preset dictionary of
+ * fragments common in source code, which is what makes small files compress at all. The
+ * {@code compression} column names the dictionary, so a new one can be introduced without
+ * rewriting stored blobs.
+ */
+final class CodeBlobCodec {
+
+    static final String NONE = "none";
+    static final String DEFLATE_V1 = "deflate-d1";
+
+    // Deflate prefers matches close to the end of the dictionary: most common fragments last
+    private static final byte[] DICTIONARY_V1 = String.join("",
+        "#!/usr/bin/env python\n# -*- coding: utf-8 -*-\n\"use strict\";\n<?php\n#include <stdio.h>\n#include <stdlib.h>\n",
+        "#include <string.h>\n#include <iostream>\n#include <vector>\nusing namespace std;\nint main(int argc, char *argv[]) {\n",
+        "package main\n\nimport (\n\t\"fmt\"\n)\nfunc main() {\nfunc (s *\nerr != nil {\n\t\treturn nil, err\n\t}\n",
+        "fn main() {\nlet mut \nimpl \npub fn \n-> Result<\nOk(())\n.unwrap()\nnamespace \nConsole.WriteLine(",
+        "module.exports = \nrequire('\nexport default \nexport const \nimport { \n} from '\nconst \nlet \n=> {\n",
+        "async function \nawait \nconsole.log(\ndocument.getElementById(\nfunction \nundefined\n===\n!==\n",
+        "from typing import \nimport os\nimport sys\nif __name__ == \"__main__\":\n    def __init__(self, \n",
+        "        self.\n    return \n    def \nclass \nelif \nexcept Exception as e:\n    raise \nNone\nTrue\nFalse\n",
+        "import java.util.List;\nimport java.util.Map;\nimport java.util.ArrayList;\nimport java.util.HashMap;\n",
+        "import java.io.IOException;\nimport org.springframework.\n@Override\n@Autowired\n@Service\n@Component\n",
+        "public static void main(String[] args) {\nSystem.out.println(\nthrow new IllegalArgumentException(\"\n",
+        "new ArrayList<>();\nnew HashMap<>();\nprivate static final \nprivate final String \nprivate int \n",
+        "public String get\npublic void set\n    public class \n    public interface \n    @param \n     * @return \n",
+        "    /**\n     * \n     */\n    }\n\n    public \n        if (\n        } else {\n        for (int i = 0; i < \n",
+        "        return \n            return \n        }\n    }\n}\n").getBytes(StandardCharsets.UTF_8);
+
+    private CodeBlobCodec() {
+    }
+
+    static Encoded encode(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY_V1);
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 3 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+                if (out.size() >= raw.length) {
+                    // Incompressible: storing it as is is smaller
+                    return new Encoded(NONE, raw);
+                }
+            }
+            return new Encoded(DEFLATE_V1, out.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static String decode(String compression, byte[] data, int originalLength) {
+        if (NONE.equals(compression)) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        if (!DEFLATE_V1.equals(compression)) {
+            throw new IllegalStateException("Unknown code blob compression: " + compression);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[originalLength];
+            int n = 0;
+            while (n < originalLength && !inflater.finished()) {
+                int read = inflater.inflate(raw, n, originalLength - n);
+                if (read == 0 && inflater.needsDictionary()) {
+                    inflater.setDictionary(DICTIONARY_V1);
+                } else if (read == 0 && inflater.needsInput()) {
+                    break;
+                }
+                n += read;
+            }
+            return new String(n == originalLength ? raw : Arrays.copyOf(raw, n), StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt code blob", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    record Encoded(String compression, byte[] data) {
+    }
+}
@@ -1,38 +1,94 @@
 package com.yourorg.aicode.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
 import java.time.Instant;
 
 @Entity
+// Partitioned by month on created_at; partitions and indexes are managed in schema.sql and
+// SubmissionPartitionService, the primary key is (id, created_at)
 @Table(name = "code_submissions")
-public class CodeSubmission {
+public class CodeSubmission implements Persistable<Long> {
 
+    // Assigned up front from the pooled code_submissions_seq (SubmissionIdAllocator), so the id
+    // is known before the row is written and inserts can be batched (see schema.sql for resync)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String author;
 
-    @Lob
+    // Name of the authenticated user who submitted the code; null for reviews made before it was recorded
+    private String owner;
+
+    // Code lives in code_blobs, shared by every submission of the same content
+    @Column(name = "code_hash", length = 64)
+    private String codeHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "code_hash", insertable = false, updatable = false)
+    private CodeBlob codeBlob;
+
+    @Transient
     private String code;
 
+    // SimHash of the normalized code, for near-duplicate lookup (NearDuplicateIndex)
+    @Column(name = "code_simhash")
+    private Long codeSimhash;
+
     private String language;
 
-    @Lob
+    // The review as JSON (ReviewResponse, findings included), for AI and fallback reviews alike;
+    // jsonb so that findings can be aggregated in the database (see CodeSubmissionRepository)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
     private String aiFeedback;
 
     private Integer score;
 
+    @Column(nullable = false)
     private Instant createdAt;
 
+    // Set when this submission was reviewed incrementally against an earlier one
+    private Long baseSubmissionId;
+
+    // Whether a hedged provider request answered first; null when the provider was not called
+    private Boolean hedgeWon;
+
+    // Ids are assigned, so "new" cannot be derived from a null id
+    @Transient
+    private boolean persisted;
+
+    @Override
     public Long getId() {
         return id;
     }
 
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
 
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
     public String getAuthor() {
         return author;
     }
@@ -41,12 +97,33 @@ public class CodeSubmission {
         this.author = author;
     }
 
+    /**
+     * The submitted code; for a loaded submission its blob is fetched and decompressed on
+     * first access.
+     */
     public String getCode() {
+        if (code == null && codeBlob != null) {
+            code = codeBlob.getText();
+        }
         return code;
     }
 
     public void setCode(String code) {
         this.code = code;
+        this.codeHash = code == null ? null : CodeBlob.hashOf(code);
+        this.codeBlob = null;
+    }
+
+    public String getCodeHash() {
+        return codeHash;
+    }
+
+    public Long getCodeSimhash() {
+        return codeSimhash;
+    }
+
+    public void setCodeSimhash(Long codeSimhash) {
+        this.codeSimhash = codeSimhash;
     }
 
     public String getLanguage() {
@@ -80,4 +157,20 @@ public class CodeSubmission {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getBaseSubmissionId() {
+        return baseSubmissionId;
+    }
+
+    public void setBaseSubmissionId(Long baseSubmissionId) {
+        this.baseSubmissionId = baseSubmissionId;
+    }
+
+    public Boolean getHedgeWon() {
+        return hedgeWon;
+    }
+
+    public void setHedgeWon(Boolean hedgeWon) {
+        this.hedgeWon = hedgeWon;
+    }
 }
@@ -9,7 +9,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_family_id", columnList = "familyId")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,6 +38,14 @@ public class RefreshToken {
     @Column(nullable = false)
     private Boolean revoked = false;
     
+    // Shared by a login's token and every token rotated from it; null for tokens issued before rotation tracking
+    @Column(length = 36)
+    private String familyId;
+    
+    // When the token was replaced by a refresh; null while active or when revoked otherwise
+    @Column
+    private LocalDateTime rotatedAt;
+    
     @Column
     private String ipAddress;
     
@@ -0,0 +1,100 @@
+package com.yourorg.aicode.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Second (database) tier of the review result cache.
+ * Rows are keyed by the content hash computed in {@code ReviewCacheService}.
+ */
+@Entity
+@Table(name = "review_cache", indexes = {
+    @Index(name = "idx_review_cache_expires_at", columnList = "expiresAt")
+})
+public class ReviewCacheEntry {
+
+    @Id
+    @Column(length = 64)
+    private String cacheKey;
+
+    private String language;
+
+    private String model;
+
+    private String promptVersion;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String reviewJson;
+
+    private Integer score;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getPromptVersion() {
+        return promptVersion;
+    }
+
+    public void setPromptVersion(String promptVersion) {
+        this.promptVersion = promptVersion;
+    }
+
+    public String getReviewJson() {
+        return reviewJson;
+    }
+
+    public void setReviewJson(String reviewJson) {
+        this.reviewJson = reviewJson;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public void setScore(Integer score) {
+        this.score = score;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
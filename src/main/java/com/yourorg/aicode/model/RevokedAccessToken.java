@@ -0,0 +1,51 @@
+package com.yourorg.aicode.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A revoked access token, kept until the token would have expired anyway. The key is the token's
+ * {@code jti}, or {@code user:<email>} for "every token of this user issued before
+ * {@code revokedAt}". Loaded into memory by {@code AccessTokenRevocations}.
+ */
+@Entity
+@Table(name = "revoked_access_tokens", indexes = {
+    @Index(name = "idx_revoked_access_tokens_revoked_at", columnList = "revokedAt"),
+    @Index(name = "idx_revoked_access_tokens_expires_at", columnList = "expiresAt")
+})
+public class RevokedAccessToken {
+
+    @Id
+    @Column(length = 320)
+    private String tokenKey;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public String getTokenKey() {
+        return tokenKey;
+    }
+
+    public void setTokenKey(String tokenKey) {
+        this.tokenKey = tokenKey;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
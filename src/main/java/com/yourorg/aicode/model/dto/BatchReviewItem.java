@@ -0,0 +1,40 @@
+package com.yourorg.aicode.model.dto;
+
+public class BatchReviewItem {
+    private int index;
+    private String fileName;
+    private ReviewResponse review;
+    private String error;
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public ReviewResponse getReview() {
+        return review;
+    }
+
+    public void setReview(ReviewResponse review) {
+        this.review = review;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,42 @@
+package com.yourorg.aicode.model.dto;
+
+import java.util.List;
+
+public class BatchReviewResponse {
+    private int count;
+    private int failed;
+    private int aggregateScore;
+    private List<BatchReviewItem> results;
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public int getAggregateScore() {
+        return aggregateScore;
+    }
+
+    public void setAggregateScore(int aggregateScore) {
+        this.aggregateScore = aggregateScore;
+    }
+
+    public List<BatchReviewItem> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchReviewItem> results) {
+        this.results = results;
+    }
+}
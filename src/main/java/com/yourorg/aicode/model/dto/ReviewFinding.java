@@ -0,0 +1,68 @@
+package com.yourorg.aicode.model.dto;
+
+/**
+ * A single issue of a review, tagged with where it came from.
+ */
+public class ReviewFinding {
+
+    public static final String SOURCE_AI = "ai";
+    public static final String SOURCE_LOCAL = "local";
+
+    private String source;
+    private String ruleId;
+    // Coarse kind of issue (security, error-handling, ...), used for reporting
+    private String category;
+    private Integer line;
+    private String message;
+
+    public ReviewFinding() {
+    }
+
+    public ReviewFinding(String source, String ruleId, String category, Integer line, String message) {
+        this.source = source;
+        this.ruleId = ruleId;
+        this.category = category;
+        this.line = line;
+        this.message = message;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(String ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getLine() {
+        return line;
+    }
+
+    public void setLine(Integer line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
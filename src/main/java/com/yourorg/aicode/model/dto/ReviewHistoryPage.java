@@ -0,0 +1,33 @@
+package com.yourorg.aicode.model.dto;
+
+import java.util.List;
+
+public class ReviewHistoryPage {
+    private List<ReviewSummary> items;
+    // Opaque cursor for the next (older) page; null on the last page
+    private String nextCursor;
+
+    public ReviewHistoryPage() {
+    }
+
+    public ReviewHistoryPage(List<ReviewSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReviewSummary> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReviewSummary> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,89 @@
+package com.yourorg.aicode.model.dto;
+
+import java.time.Instant;
+
+public class ReviewJobResponse {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String jobId;
+    private Status status;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private ReviewResponse preliminary;
+    private ReviewResponse result;
+    private String error;
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Instant submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * Local rule review, available while the job is still waiting for the AI review.
+     */
+    public ReviewResponse getPreliminary() {
+        return preliminary;
+    }
+
+    public void setPreliminary(ReviewResponse preliminary) {
+        this.preliminary = preliminary;
+    }
+
+    public ReviewResponse getResult() {
+        return result;
+    }
+
+    public void setResult(ReviewResponse result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
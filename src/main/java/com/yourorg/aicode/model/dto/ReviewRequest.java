@@ -1,9 +1,20 @@
 package com.yourorg.aicode.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class ReviewRequest {
     private String author;
     private String code;
     private String language;
+    // Incremental review: unified diff against, and/or id of, a previously reviewed submission
+    private String diff;
+    private Long baseSubmissionId;
+    // Time budget for the provider call, taken from the X-Review-Deadline-Ms header
+    @JsonIgnore
+    private Long deadlineMs;
+    // Authenticated user submitting the review, set by the controller (not the free-text author)
+    @JsonIgnore
+    private String owner;
 
     public String getAuthor() {
         return author;
@@ -28,4 +39,36 @@ public class ReviewRequest {
     public void setLanguage(String language) {
         this.language = language;
     }
+
+    public String getDiff() {
+        return diff;
+    }
+
+    public void setDiff(String diff) {
+        this.diff = diff;
+    }
+
+    public Long getBaseSubmissionId() {
+        return baseSubmissionId;
+    }
+
+    public void setBaseSubmissionId(Long baseSubmissionId) {
+        this.baseSubmissionId = baseSubmissionId;
+    }
+
+    public Long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    public void setDeadlineMs(Long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
 }
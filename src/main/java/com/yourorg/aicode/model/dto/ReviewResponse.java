@@ -1,5 +1,7 @@
 package com.yourorg.aicode.model.dto;
 
+import java.util.List;
+
 public class ReviewResponse {
     private Long submissionId;
     private int score;
@@ -9,6 +11,12 @@ public class ReviewResponse {
     private String[] suggestions;
     private String[] bestPractices;
     private String fixCode;
+    // All issues tagged by source (AI model or local rule engine)
+    private List<ReviewFinding> findings;
+    // Who produced the review: ReviewFinding.SOURCE_AI, or SOURCE_LOCAL for the rule-based fallback
+    private String source;
+    // Local-only result because the AI review is not (yet) available
+    private boolean preliminary;
 
     public Long getSubmissionId() {
         return submissionId;
@@ -73,4 +81,28 @@ public class ReviewResponse {
     public void setFixCode(String fixCode) {
         this.fixCode = fixCode;
     }
+
+    public List<ReviewFinding> getFindings() {
+        return findings;
+    }
+
+    public void setFindings(List<ReviewFinding> findings) {
+        this.findings = findings;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public boolean isPreliminary() {
+        return preliminary;
+    }
+
+    public void setPreliminary(boolean preliminary) {
+        this.preliminary = preliminary;
+    }
 }
@@ -0,0 +1,52 @@
+package com.yourorg.aicode.model.dto;
+
+public class ReviewSearchHit {
+    private ReviewSummary review;
+    private double rank;
+    // Review text around the matches, terms wrapped in <mark></mark>; not HTML-escaped
+    private String snippet;
+    // Whether the submitted code matched (its text is not part of the snippet)
+    private boolean codeMatch;
+
+    public ReviewSearchHit() {
+    }
+
+    public ReviewSearchHit(ReviewSummary review, double rank, String snippet, boolean codeMatch) {
+        this.review = review;
+        this.rank = rank;
+        this.snippet = snippet;
+        this.codeMatch = codeMatch;
+    }
+
+    public ReviewSummary getReview() {
+        return review;
+    }
+
+    public void setReview(ReviewSummary review) {
+        this.review = review;
+    }
+
+    public double getRank() {
+        return rank;
+    }
+
+    public void setRank(double rank) {
+        this.rank = rank;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public boolean isCodeMatch() {
+        return codeMatch;
+    }
+
+    public void setCodeMatch(boolean codeMatch) {
+        this.codeMatch = codeMatch;
+    }
+}
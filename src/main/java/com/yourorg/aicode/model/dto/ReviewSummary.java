@@ -0,0 +1,76 @@
+package com.yourorg.aicode.model.dto;
+
+import java.time.Instant;
+
+/**
+ * A past review in the history list, without code or review body.
+ */
+public class ReviewSummary {
+    private Long submissionId;
+    private String author;
+    private String language;
+    private Integer score;
+    private Instant createdAt;
+    private Long baseSubmissionId;
+
+    public ReviewSummary() {
+    }
+
+    public ReviewSummary(Long submissionId, String author, String language, Integer score, Instant createdAt,
+                         Long baseSubmissionId) {
+        this.submissionId = submissionId;
+        this.author = author;
+        this.language = language;
+        this.score = score;
+        this.createdAt = createdAt;
+        this.baseSubmissionId = baseSubmissionId;
+    }
+
+    public Long getSubmissionId() {
+        return submissionId;
+    }
+
+    public void setSubmissionId(Long submissionId) {
+        this.submissionId = submissionId;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public void setScore(Integer score) {
+        this.score = score;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getBaseSubmissionId() {
+        return baseSubmissionId;
+    }
+
+    public void setBaseSubmissionId(Long baseSubmissionId) {
+        this.baseSubmissionId = baseSubmissionId;
+    }
+}
@@ -0,0 +1,137 @@
+package com.yourorg.aicode.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Score statistics over a range of weeks, overall and broken down by week (the trend), author
+ * and language. Percentiles are estimated from the fixed 10-point histogram buckets.
+ */
+public class ScoreAnalytics {
+    // Monday (UTC) of the first week included
+    private LocalDate from;
+    private int weeks;
+    private ScoreStats overall;
+    private List<ScoreStats> byWeek;
+    private List<ScoreStats> byAuthor;
+    private List<ScoreStats> byLanguage;
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public int getWeeks() {
+        return weeks;
+    }
+
+    public void setWeeks(int weeks) {
+        this.weeks = weeks;
+    }
+
+    public ScoreStats getOverall() {
+        return overall;
+    }
+
+    public void setOverall(ScoreStats overall) {
+        this.overall = overall;
+    }
+
+    public List<ScoreStats> getByWeek() {
+        return byWeek;
+    }
+
+    public void setByWeek(List<ScoreStats> byWeek) {
+        this.byWeek = byWeek;
+    }
+
+    public List<ScoreStats> getByAuthor() {
+        return byAuthor;
+    }
+
+    public void setByAuthor(List<ScoreStats> byAuthor) {
+        this.byAuthor = byAuthor;
+    }
+
+    public List<ScoreStats> getByLanguage() {
+        return byLanguage;
+    }
+
+    public void setByLanguage(List<ScoreStats> byLanguage) {
+        this.byLanguage = byLanguage;
+    }
+
+    public static class ScoreStats {
+        // Week (ISO date of its Monday), author or language; null for the overall figures
+        private String key;
+        private long submissions;
+        private double averageScore;
+        private double p50;
+        private double p90;
+        // Submissions per score bucket 0-9, 10-19, ..., 90-100
+        private long[] histogram;
+
+        public ScoreStats() {
+        }
+
+        public ScoreStats(String key, long submissions, double averageScore, double p50, double p90, long[] histogram) {
+            this.key = key;
+            this.submissions = submissions;
+            this.averageScore = averageScore;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.histogram = histogram;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public long getSubmissions() {
+            return submissions;
+        }
+
+        public void setSubmissions(long submissions) {
+            this.submissions = submissions;
+        }
+
+        public double getAverageScore() {
+            return averageScore;
+        }
+
+        public void setAverageScore(double averageScore) {
+            this.averageScore = averageScore;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public void setP50(double p50) {
+            this.p50 = p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public void setP90(double p90) {
+            this.p90 = p90;
+        }
+
+        public long[] getHistogram() {
+            return histogram;
+        }
+
+        public void setHistogram(long[] histogram) {
+            this.histogram = histogram;
+        }
+    }
+}
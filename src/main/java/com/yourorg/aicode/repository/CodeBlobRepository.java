@@ -0,0 +1,28 @@
+package com.yourorg.aicode.repository;
+
+import com.yourorg.aicode.model.CodeBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+
+@Repository
+public interface CodeBlobRepository extends JpaRepository<CodeBlob, String> {
+
+    @Query("SELECT b.hash FROM CodeBlob b WHERE b.hash IN :hashes")
+    Set<String> findExistingHashes(Collection<String> hashes);
+
+    // Concurrent submissions of the same code race to insert it; the loser is a no-op.
+    // The search vector is built from the plain text here, the stored data is compressed.
+    @Modifying
+    @Query(value = "INSERT INTO code_blobs (hash, compression, data, original_length, created_at, code_tsv) "
+        + "VALUES (:hash, :compression, :data, :originalLength, :createdAt, "
+        + "to_tsvector('simple', CAST(:searchText AS text))) ON CONFLICT (hash) DO NOTHING",
+        nativeQuery = true)
+    int insertIfAbsent(String hash, String compression, byte[] data, int originalLength, Instant createdAt,
+                       String searchText);
+}
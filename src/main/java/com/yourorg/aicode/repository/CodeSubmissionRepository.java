@@ -1,9 +1,134 @@
 package com.yourorg.aicode.repository;
 
 import com.yourorg.aicode.model.CodeSubmission;
+import com.yourorg.aicode.model.dto.ReviewSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CodeSubmissionRepository extends JpaRepository<CodeSubmission, Long> {
+
+    // Findings of the stored review JSON, one row each; reviews without a findings array add none
+    String FINDINGS = "code_submissions s CROSS JOIN LATERAL jsonb_array_elements("
+        + "CASE WHEN jsonb_typeof(s.ai_feedback -> 'findings') = 'array' "
+        + "THEN s.ai_feedback -> 'findings' ELSE CAST('[]' AS jsonb) END) f";
+
+    // Optional author (null for everyone), submissions created at or after :since
+    String SUBMITTED = "(CAST(:author AS text) IS NULL OR s.author = CAST(:author AS text)) AND s.created_at >= :since";
+
+    // Search filters: the owner's submissions since :since, in :language unless it is null.
+    // Repeated in every match branch so each scans only the partitions of the time range
+    String SEARCHED = "s.owner = :owner AND s.created_at >= :since"
+        + " AND (CAST(:language AS text) IS NULL OR lower(s.language) = lower(CAST(:language AS text)))";
+
+    // The code blob is lazy; fetch it along when the caller needs the code outside a transaction
+    @EntityGraph(attributePaths = "codeBlob")
+    Optional<CodeSubmission> findWithCodeById(Long id);
+
+    String SUMMARY = "SELECT new com.yourorg.aicode.model.dto.ReviewSummary(s.id, s.author, s.language, s.score, "
+        + "s.createdAt, s.baseSubmissionId) FROM CodeSubmission s ";
+
+    /**
+     * Newest reviews of {@code owner}, without code or review body. Served by an index-only scan
+     * of idx_code_submissions_owner_history (schema.sql).
+     */
+    @Query(SUMMARY + "WHERE s.owner = :owner ORDER BY s.createdAt DESC, s.id DESC")
+    List<ReviewSummary> findHistory(String owner, Limit limit);
+
+    /**
+     * Reviews of {@code owner} older than the keyset {@code (createdAt, id)}; the row comparison
+     * seeks into the index, so every page costs the same however deep it is. The redundant
+     * bound on createdAt lets the planner skip newer partitions.
+     */
+    @Query(SUMMARY + "WHERE s.owner = :owner AND s.createdAt <= :createdAt AND (s.createdAt, s.id) < (:createdAt, :id) "
+        + "ORDER BY s.createdAt DESC, s.id DESC")
+    List<ReviewSummary> findHistoryBefore(String owner, Instant createdAt, Long id, Limit limit);
+
+    @Query(SUMMARY + "WHERE s.id IN :ids")
+    List<ReviewSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    /**
+     * Ranked search over the owner's reviews: full text on the review text (english) and on the
+     * code (simple), plus trigram word similarity on the review text for misspelt terms. Each
+     * branch of {@code matches} is served by its own GIN index (schema.sql) and filtered by
+     * owner, time range and language up front; only the returned page is highlighted.
+     */
+    @Query(value = "WITH q AS ("
+        + "  SELECT websearch_to_tsquery('english', CAST(:query AS text)) AS review_query,"
+        + "         websearch_to_tsquery('simple', CAST(:query AS text)) AS code_query"
+        + "), matches AS ("
+        + "  SELECT s.id, s.created_at FROM code_submissions s, q"
+        + "   WHERE " + SEARCHED + " AND to_tsvector('english', s.review_text) @@ q.review_query"
+        + "  UNION"
+        + "  SELECT s.id, s.created_at FROM code_submissions s JOIN code_blobs b ON b.hash = s.code_hash, q"
+        + "   WHERE " + SEARCHED + " AND b.code_tsv @@ q.code_query"
+        + "  UNION"
+        + "  SELECT s.id, s.created_at FROM code_submissions s"
+        + "   WHERE " + SEARCHED + " AND CAST(:query AS text) <% s.review_text"
+        + "), ranked AS ("
+        + "  SELECT s.id, s.review_text, coalesce(b.code_tsv @@ q.code_query, false) AS code_match,"
+        + "         CAST(ts_rank_cd(to_tsvector('english', s.review_text), q.review_query)"
+        + "              + 0.5 * coalesce(ts_rank_cd(b.code_tsv, q.code_query), 0)"
+        + "              + 0.1 * word_similarity(CAST(:query AS text), s.review_text) AS double precision) AS rank"
+        + "    FROM matches m JOIN code_submissions s ON s.id = m.id AND s.created_at = m.created_at"
+        + "    LEFT JOIN code_blobs b ON b.hash = s.code_hash CROSS JOIN q"
+        + "   WHERE s.created_at >= :since"
+        + "   ORDER BY rank DESC, s.id DESC LIMIT :limit OFFSET :offset"
+        + ")"
+        + "SELECT r.id AS \"submissionId\", r.rank AS rank, r.code_match AS \"codeMatch\","
+        + "       ts_headline('english', r.review_text, q.review_query,"
+        + "                   'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MinWords=8, MaxWords=25') AS snippet"
+        + "  FROM ranked r CROSS JOIN q ORDER BY r.rank DESC, r.id DESC", nativeQuery = true)
+    List<SearchHit> search(String owner, String query, String language, Instant since, int limit, int offset);
+
+    /**
+     * Most frequent finding categories, aggregated in the database without loading submissions.
+     */
+    @Query(value = "SELECT COALESCE(f ->> 'category', 'other') AS category, COUNT(*) AS occurrences, "
+        + "COUNT(DISTINCT s.id) AS submissions FROM " + FINDINGS + " WHERE " + SUBMITTED
+        + " GROUP BY 1 ORDER BY occurrences DESC, category LIMIT :limit", nativeQuery = true)
+    List<CategoryCount> findTopFindingCategories(String author, Instant since, int limit);
+
+    /**
+     * Local rules that fired most often.
+     */
+    @Query(value = "SELECT f ->> 'ruleId' AS \"ruleId\", COUNT(*) AS occurrences, "
+        + "COUNT(DISTINCT s.id) AS submissions FROM " + FINDINGS + " WHERE " + SUBMITTED
+        + " AND f ->> 'source' = 'local' AND f ->> 'ruleId' IS NOT NULL"
+        + " GROUP BY 1 ORDER BY occurrences DESC, 1 LIMIT :limit", nativeQuery = true)
+    List<RuleCount> findTopLocalRules(String author, Instant since, int limit);
+
+    interface CategoryCount {
+        String getCategory();
+
+        long getOccurrences();
+
+        long getSubmissions();
+    }
+
+    interface RuleCount {
+        String getRuleId();
+
+        long getOccurrences();
+
+        long getSubmissions();
+    }
+
+    interface SearchHit {
+        Long getSubmissionId();
+
+        double getRank();
+
+        boolean getCodeMatch();
+
+        String getSnippet();
+    }
 }
@@ -16,6 +16,24 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     
     Optional<RefreshToken> findByToken(String token);
     
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.token = :token")
+    Optional<RefreshToken> findWithUserByToken(String token);
+    
+    // Only one of several concurrent rotations of the same token sees 1
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true, rt.rotatedAt = :now WHERE rt.id = :id AND rt.revoked = false")
+    int rotateIfActive(Long id, LocalDateTime now);
+    
+    // Read after a lost rotation, which the loaded entity does not show yet
+    @Query("SELECT rt.rotatedAt FROM RefreshToken rt WHERE rt.id = :id")
+    Optional<LocalDateTime> findRotatedAt(Long id);
+    
+    boolean existsByFamilyIdAndRevokedFalse(String familyId);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.familyId = :familyId AND rt.revoked = false")
+    int revokeFamily(String familyId);
+    
     List<RefreshToken> findByUser(User user);
     
     @Modifying
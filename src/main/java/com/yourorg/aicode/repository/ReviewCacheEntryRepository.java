@@ -0,0 +1,20 @@
+package com.yourorg.aicode.repository;
+
+import com.yourorg.aicode.model.ReviewCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface ReviewCacheEntryRepository extends JpaRepository<ReviewCacheEntry, String> {
+
+    Optional<ReviewCacheEntry> findByCacheKeyAndExpiresAtAfter(String cacheKey, Instant now);
+
+    @Modifying
+    @Query("DELETE FROM ReviewCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpiredEntries(Instant now);
+}
@@ -0,0 +1,164 @@
+package com.yourorg.aicode.security;
+
+import com.yourorg.aicode.model.RevokedAccessToken;
+import com.yourorg.aicode.repository.RevokedAccessTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens, checked on every authenticated request without database access.
+ * Revocations are stored in {@code revoked_access_tokens} and held in memory as a Bloom filter
+ * with the exact set behind it: almost every token misses the filter, and a filter hit is
+ * confirmed against the set. Revocations made on other nodes are polled every
+ * {@code app.jwt.revocation.refresh-interval}; the filter is rebuilt from the table every
+ * {@code rebuild-interval}, which also drops expired entries and resizes it.
+ */
+@Component
+public class AccessTokenRevocations {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenRevocations.class);
+
+    static final String USER_PREFIX = "user:";
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1024;
+    // Polls overlap by this much, covering clock skew between nodes and commits still in flight
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedAccessTokenRepository repository;
+    private final Duration accessTokenLifetime;
+
+    private volatile Snapshot snapshot = Snapshot.empty(MIN_CAPACITY);
+    // Guarded by this: refresh and rebuild are scheduled separately and may run on different
+    // scheduler threads at the same time
+    private Instant lastPoll = Instant.EPOCH;
+
+    public AccessTokenRevocations(RevokedAccessTokenRepository repository,
+                                  @Value("${app.jwt.expiration:10800000}") long accessTokenLifetimeMs) {
+        this.repository = repository;
+        this.accessTokenLifetime = Duration.ofMillis(accessTokenLifetimeMs);
+    }
+
+    @PostConstruct
+    void load() {
+        rebuild();
+    }
+
+    /**
+     * Whether a verified token has been revoked, on its own or with every token of its user.
+     */
+    public boolean isRevoked(Claims claims) {
+        Snapshot current = snapshot;
+        String jti = claims.getId();
+        if (jti != null && current.filter().mightContain(jti) && current.revoked().containsKey(jti)) {
+            return true;
+        }
+        String userKey = USER_PREFIX + claims.getSubject();
+        if (!current.filter().mightContain(userKey)) {
+            return false;
+        }
+        Instant cutoff = current.revoked().get(userKey);
+        // iat has whole seconds: tokens issued in the second of the revocation stay valid
+        return cutoff != null && claims.getIssuedAt() != null
+            && claims.getIssuedAt().toInstant().isBefore(cutoff.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Revoke one token until it expires. Tokens issued without a {@code jti} cannot be revoked
+     * one by one.
+     */
+    @Transactional
+    public void revoke(Claims claims) {
+        if (claims == null || claims.getId() == null || claims.getExpiration() == null) {
+            return;
+        }
+        store(claims.getId(), claims.getExpiration().toInstant());
+    }
+
+    /**
+     * Revoke every access token issued to {@code email} so far.
+     */
+    @Transactional
+    public void revokeAll(String email) {
+        store(USER_PREFIX + email, Instant.now().plus(accessTokenLifetime));
+    }
+
+    /**
+     * Add revocations stored since the last poll, by this or another node.
+     */
+    @Transactional(readOnly = true)
+    public synchronized void refresh() {
+        Instant now = Instant.now();
+        List<RevokedAccessToken> recent =
+            repository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(lastPoll.minus(POLL_OVERLAP), now);
+        Snapshot current = snapshot;
+        recent.forEach(current::add);
+        lastPoll = now;
+    }
+
+    /**
+     * Replace the filter with one built from every live revocation.
+     */
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Instant now = Instant.now();
+        List<RevokedAccessToken> live = repository.findByExpiresAtAfter(now);
+        // Room to grow until the next rebuild without raising the false positive rate much
+        Snapshot rebuilt = Snapshot.empty(Math.max(MIN_CAPACITY, live.size() * 2));
+        live.forEach(rebuilt::add);
+        snapshot = rebuilt;
+        lastPoll = now;
+        log.debug("Rebuilt access token revocation filter with {} entries", live.size());
+    }
+
+    @Transactional
+    public int deleteExpired() {
+        return repository.deleteExpired(Instant.now());
+    }
+
+    private void store(String key, Instant expiresAt) {
+        RevokedAccessToken revoked = new RevokedAccessToken();
+        revoked.setTokenKey(key);
+        revoked.setRevokedAt(Instant.now());
+        revoked.setExpiresAt(expiresAt);
+        repository.save(revoked);
+        // Effective on this node once committed; other nodes pick it up on their next refresh
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshot.add(revoked);
+                }
+            });
+        } else {
+            snapshot.add(revoked);
+        }
+    }
+
+    private record Snapshot(BloomFilter filter, Map<String, Instant> revoked) {
+
+        static Snapshot empty(int capacity) {
+            return new Snapshot(BloomFilter.forCapacity(capacity, FALSE_POSITIVE_RATE), new ConcurrentHashMap<>());
+        }
+
+        // Exact set first: a lookup that hits the filter must find the entry
+        void add(RevokedAccessToken token) {
+            revoked.merge(token.getTokenKey(), token.getRevokedAt(), (a, b) -> a.isAfter(b) ? a : b);
+            filter.add(token.getTokenKey());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.yourorg.aicode.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter of strings: {@link #mightContain(String)} is never false for an added
+ * key and true for other keys at about the rate it was sized for. Safe for concurrent adds and
+ * lookups.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    private BloomFilter(long bits, int hashes) {
+        this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.bits = bits;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Filter for {@code expectedKeys} keys with a false positive rate of about {@code falsePositiveRate}.
+     */
+    static BloomFilter forCapacity(int expectedKeys, double falsePositiveRate) {
+        int keys = Math.max(1, expectedKeys);
+        long bits = Math.max(64, (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashes = Math.max(1, (int) Math.round((double) bits / keys * Math.log(2)));
+        return new BloomFilter(bits, hashes);
+    }
+
+    void add(String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(h1, h2, i);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Double hashing: the i-th probe is h1 + i * h2
+    private long index(int h1, int h2, int i) {
+        return Math.floorMod(h1 + (long) i * h2, bits);
+    }
+
+    // FNV-1a finished with the MurmurHash3 finalizer, so both halves are well mixed
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
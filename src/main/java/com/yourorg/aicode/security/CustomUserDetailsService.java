@@ -3,13 +3,18 @@ package com.yourorg.aicode.security;
 import com.yourorg.aicode.model.User;
 import com.yourorg.aicode.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -17,6 +22,10 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    // Users allowed to operate the service, e.g. the actuator endpoints
+    @Value("${app.security.admin-emails:}")
+    private String[] adminEmails;
+    
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -26,7 +35,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
                 .password(user.getPassword() != null ? user.getPassword() : "")
-                .authorities(Collections.emptyList())
+                .authorities(authoritiesOf(user))
                 .accountExpired(false)
                 .accountLocked(false)
                 .credentialsExpired(false)
@@ -42,7 +51,13 @@ public class CustomUserDetailsService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
                 .password(user.getPassword() != null ? user.getPassword() : "")
-                .authorities(Collections.emptyList())
+                .authorities(authoritiesOf(user))
                 .build();
     }
+    
+    private List<GrantedAuthority> authoritiesOf(User user) {
+        return Arrays.stream(adminEmails).anyMatch(admin -> admin.trim().equalsIgnoreCase(user.getEmail()))
+                ? AuthorityUtils.createAuthorityList("ROLE_ADMIN")
+                : Collections.emptyList();
+    }
 }
@@ -1,5 +1,6 @@
 package com.yourorg.aicode.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +24,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
     
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    @Autowired
+    private AccessTokenRevocations accessTokenRevocations;
+    
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, 
                                    @NonNull HttpServletResponse response, 
@@ -31,10 +38,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-                
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
+            // Verified once; the user is loaded from the database only on a principal cache miss
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt) : null;
+            if (claims != null && claims.getSubject() != null && !accessTokenRevocations.isRevoked(claims)) {
+                UserDetails userDetails = principalCache.get(claims.getSubject(),
+                    customUserDetailsService::loadUserByUsername);
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
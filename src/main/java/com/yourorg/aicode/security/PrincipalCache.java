@@ -0,0 +1,78 @@
+package com.yourorg.aicode.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache with TTL of the principals of authenticated requests, keyed by the token
+ * subject (email), so that a request with a valid JWT does not load its user from the database.
+ * Entries are dropped when the user changes or their tokens are revoked; the TTL bounds how long
+ * other nodes keep a stale entry.
+ */
+@Component
+public class PrincipalCache {
+
+    private final int maxEntries;
+    private final Duration ttl;
+
+    private final Map<String, CachedPrincipal> principals;
+
+    public PrincipalCache(@Value("${app.jwt.principal-cache.max-entries:10000}") int maxEntries,
+                          @Value("${app.jwt.principal-cache.ttl:5m}") Duration ttl) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttl = ttl;
+        // Access-ordered LinkedHashMap gives LRU eviction once maxEntries is exceeded
+        this.principals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > PrincipalCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The cached principal of {@code email}, or the one {@code loader} returns, cached without
+     * its credentials.
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        Instant now = Instant.now();
+        synchronized (principals) {
+            CachedPrincipal cached = principals.get(email);
+            if (cached != null) {
+                if (cached.expiresAt().isAfter(now)) {
+                    return cached.principal();
+                }
+                principals.remove(email);
+            }
+        }
+
+        UserDetails principal = loader.apply(email);
+        if (principal instanceof CredentialsContainer credentials) {
+            credentials.eraseCredentials();
+        }
+        synchronized (principals) {
+            principals.put(email, new CachedPrincipal(principal, now.plus(ttl)));
+        }
+        return principal;
+    }
+
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        synchronized (principals) {
+            principals.remove(email);
+        }
+    }
+
+    private record CachedPrincipal(UserDetails principal, Instant expiresAt) {
+    }
+}
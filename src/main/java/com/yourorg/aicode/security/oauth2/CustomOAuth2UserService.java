@@ -2,6 +2,7 @@ package com.yourorg.aicode.security.oauth2;
 
 import com.yourorg.aicode.model.User;
 import com.yourorg.aicode.repository.UserRepository;
+import com.yourorg.aicode.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
@@ -17,6 +18,9 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private PrincipalCache principalCache;
+    
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
         OAuth2User oauth2User = super.loadUser(userRequest);
@@ -46,6 +50,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
             }
             
             user = userRepository.save(user);
+            principalCache.invalidate(user.getEmail());
         }
         
         return oauth2User;
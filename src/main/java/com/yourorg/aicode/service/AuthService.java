@@ -6,6 +6,7 @@ import com.yourorg.aicode.dto.RegisterRequest;
 import com.yourorg.aicode.model.RefreshToken;
 import com.yourorg.aicode.model.User;
 import com.yourorg.aicode.repository.UserRepository;
+import com.yourorg.aicode.security.AccessTokenRevocations;
 import com.yourorg.aicode.security.JwtTokenProvider;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +36,9 @@ public class AuthService {
     @Autowired
     private RefreshTokenService refreshTokenService;
     
+    @Autowired
+    private AccessTokenRevocations accessTokenRevocations;
+    
     @Transactional
     public AuthResponse register(RegisterRequest registerRequest, HttpServletRequest request) {
         // Validate passwords match
@@ -124,21 +128,13 @@ public class AuthService {
     }
     
     public AuthResponse refreshToken(String refreshTokenStr, HttpServletRequest request) {
-        RefreshToken refreshToken = refreshTokenService.findByToken(refreshTokenStr);
-        refreshTokenService.verifyExpiration(refreshToken);
-        
-        User user = refreshToken.getUser();
-        String newAccessToken = tokenProvider.generateTokenFromEmail(user.getEmail());
-        
-        // Optionally rotate refresh token for better security
+        // Rotate the refresh token: revoke the presented one and issue its successor in one transaction
         String ipAddress = getClientIP(request);
         String userAgent = request.getHeader("User-Agent");
-        RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(
-            user.getId(), ipAddress, userAgent
-        );
+        RefreshToken newRefreshToken = refreshTokenService.rotate(refreshTokenStr, ipAddress, userAgent);
         
-        // Revoke old refresh token
-        refreshTokenService.revokeToken(refreshTokenStr);
+        User user = newRefreshToken.getUser();
+        String newAccessToken = tokenProvider.generateTokenFromEmail(user.getEmail());
         
         AuthResponse.UserInfo userInfo = new AuthResponse.UserInfo(
             user.getId(),
@@ -152,8 +148,17 @@ public class AuthService {
         return new AuthResponse(newAccessToken, newRefreshToken.getToken(), userInfo);
     }
     
-    @Transactional
-    public void logout(String refreshToken) {
+    /**
+     * Revoke the request's access token, then the refresh token, each in its own transaction: an
+     * unknown refresh token fails the logout but leaves the access token revoked.
+     */
+    public void logout(String refreshToken, HttpServletRequest request) {
+        // The access token would otherwise stay valid until it expires
+        String bearerToken = request.getHeader("Authorization");
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            accessTokenRevocations.revoke(tokenProvider.parseToken(bearerToken.substring(7)));
+        }
+        
         if (refreshToken != null && !refreshToken.isEmpty()) {
             refreshTokenService.revokeToken(refreshToken);
         }
@@ -0,0 +1,95 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.CodeBlob;
+import com.yourorg.aicode.model.CodeSubmission;
+import com.yourorg.aicode.repository.CodeBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes submitted code to {@code code_blobs}: content that is already stored is only
+ * referenced, new content is compressed and inserted once.
+ */
+@Service
+public class CodeBlobService {
+
+    // Same limit as the backfill of legacy blobs in schema.sql
+    static final int SEARCH_TEXT_LIMIT = 200_000;
+
+    private final CodeBlobRepository repository;
+
+    private final Counter storedBlobs;
+    private final Counter deduplicated;
+    private final DistributionSummary bytesPerSubmission;
+    private final Counter originalBytes;
+    private final Counter compressedBytes;
+    private final Timer storeLatency;
+
+    public CodeBlobService(CodeBlobRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.storedBlobs = meterRegistry.counter("code.blobs.writes", "result", "stored");
+        this.deduplicated = meterRegistry.counter("code.blobs.writes", "result", "deduplicated");
+        this.bytesPerSubmission = DistributionSummary.builder("code.blobs.bytes.per.submission")
+            .description("Code bytes written per submission (0 when the code was already stored)")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.originalBytes = meterRegistry.counter("code.blobs.bytes", "kind", "original");
+        this.compressedBytes = meterRegistry.counter("code.blobs.bytes", "kind", "stored");
+        this.storeLatency = Timer.builder("code.blobs.store.latency")
+            .description("Time to look up and insert the code blobs of a save")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Make sure the code of every submission is stored. Must run before the submissions are
+     * inserted, in the same or an earlier transaction.
+     */
+    @Transactional
+    public void store(Collection<CodeSubmission> submissions) {
+        long start = System.nanoTime();
+        Set<String> hashes = new LinkedHashSet<>();
+        for (CodeSubmission submission : submissions) {
+            if (submission.getCodeHash() != null) {
+                hashes.add(submission.getCodeHash());
+            }
+        }
+        if (hashes.isEmpty()) {
+            return;
+        }
+
+        Set<String> present = new HashSet<>(repository.findExistingHashes(hashes));
+        for (CodeSubmission submission : submissions) {
+            if (submission.getCodeHash() == null) {
+                continue;
+            }
+            if (!present.add(submission.getCodeHash())) {
+                deduplicated.increment();
+                bytesPerSubmission.record(0);
+                continue;
+            }
+            CodeBlob blob = CodeBlob.of(submission.getCode());
+            repository.insertIfAbsent(blob.getHash(), blob.getCompression(), blob.getData(),
+                blob.getOriginalLength(), blob.getCreatedAt(), searchText(submission.getCode()));
+            storedBlobs.increment();
+            bytesPerSubmission.record(blob.getData().length);
+            originalBytes.increment(blob.getOriginalLength());
+            compressedBytes.increment(blob.getData().length);
+        }
+        storeLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    // A tsvector is limited to 1 MB; the head of a huge file is enough to find it
+    private static String searchText(String code) {
+        return code.length() <= SEARCH_TEXT_LIMIT ? code : code.substring(0, SEARCH_TEXT_LIMIT);
+    }
+}
@@ -0,0 +1,145 @@
+package com.yourorg.aicode.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits large source files into chunks that fit a token budget, cutting on class/function
+ * boundaries where the language is known. Brace languages are cut where the nesting depth
+ * drops back to the top or class-member level; indentation languages are cut before
+ * top-level or first-level {@code def}/{@code class} declarations. Unknown languages are
+ * cut on blank lines.
+ */
+@Component
+public class CodeChunker {
+
+    /** Rough token estimate used for budgeting; close enough for code with Gemini tokenizers. */
+    static final int CHARS_PER_TOKEN = 4;
+
+    private static final Set<String> BRACE_LANGUAGES = Set.of(
+        "java", "kotlin", "scala", "javascript", "typescript", "go", "rust",
+        "c", "cpp", "c++", "csharp", "c#", "php", "swift", "dart");
+
+    private static final Set<String> INDENT_LANGUAGES = Set.of("python", "ruby");
+
+    private static final Pattern INDENT_DECLARATION = Pattern.compile(
+        "^( {0,4}|\\t?)(async\\s+def|def|class|module)\\b.*|^( {0,4}|\\t?)@\\w.*");
+
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Split {@code code} into chunks of at most {@code maxTokens} estimated tokens.
+     * Returns a single chunk when the code already fits.
+     */
+    public List<CodeChunk> split(String code, String language, int maxTokens) {
+        String[] lines = code.split("\n", -1);
+        if (estimateTokens(code) <= maxTokens) {
+            return List.of(new CodeChunk(1, lines.length, code));
+        }
+
+        boolean[] boundaries = boundaries(lines, language == null ? "" : language.trim().toLowerCase(Locale.ROOT));
+        int maxChars = Math.max(1, maxTokens) * CHARS_PER_TOKEN;
+
+        List<CodeChunk> chunks = new ArrayList<>();
+        int chunkStart = 0;
+        int chunkChars = 0;
+        int lastBoundary = -1;
+        for (int i = 0; i < lines.length; i++) {
+            if (boundaries[i] && i > chunkStart) {
+                lastBoundary = i;
+            }
+            int lineChars = lines[i].length() + 1;
+            if (chunkChars + lineChars > maxChars && i > chunkStart) {
+                // Prefer the last syntactic boundary inside the current chunk; else cut here
+                int cut = lastBoundary > chunkStart ? lastBoundary : i;
+                chunks.add(chunk(lines, chunkStart, cut));
+                chunkStart = cut;
+                chunkChars = 0;
+                for (int j = cut; j < i; j++) {
+                    chunkChars += lines[j].length() + 1;
+                }
+                lastBoundary = -1;
+            }
+            chunkChars += lineChars;
+        }
+        if (chunkStart < lines.length) {
+            chunks.add(chunk(lines, chunkStart, lines.length));
+        }
+        return chunks;
+    }
+
+    private static CodeChunk chunk(String[] lines, int from, int to) {
+        return new CodeChunk(from + 1, to, String.join("\n", Arrays.copyOfRange(lines, from, to)));
+    }
+
+    /**
+     * boundaries[i] is true when a chunk may start at line i.
+     */
+    private static boolean[] boundaries(String[] lines, String language) {
+        boolean[] result = new boolean[lines.length];
+        if (BRACE_LANGUAGES.contains(language)) {
+            braceBoundaries(lines, result);
+        } else if (INDENT_LANGUAGES.contains(language)) {
+            for (int i = 0; i < lines.length; i++) {
+                result[i] = INDENT_DECLARATION.matcher(lines[i]).matches();
+            }
+        } else {
+            for (int i = 1; i < lines.length; i++) {
+                result[i] = lines[i - 1].isBlank();
+            }
+        }
+        return result;
+    }
+
+    private static void braceBoundaries(String[] lines, boolean[] result) {
+        int depth = 0;
+        boolean inBlockComment = false;
+        for (int i = 0; i < lines.length; i++) {
+            // A line that starts at top level or class-member level, after a closed block
+            result[i] = depth <= 1 && !inBlockComment && i > 0 && lines[i - 1].trim().endsWith("}");
+            String line = lines[i];
+            char quote = 0;
+            for (int c = 0; c < line.length(); c++) {
+                char ch = line.charAt(c);
+                char next = c + 1 < line.length() ? line.charAt(c + 1) : 0;
+                if (inBlockComment) {
+                    if (ch == '*' && next == '/') {
+                        inBlockComment = false;
+                        c++;
+                    }
+                } else if (quote != 0) {
+                    if (ch == '\\') {
+                        c++;
+                    } else if (ch == quote) {
+                        quote = 0;
+                    }
+                } else if (ch == '/' && next == '/') {
+                    break;
+                } else if (ch == '/' && next == '*') {
+                    inBlockComment = true;
+                    c++;
+                } else if (ch == '"' || ch == '\'' || ch == '`') {
+                    quote = ch;
+                } else if (ch == '{') {
+                    depth++;
+                } else if (ch == '}') {
+                    depth = Math.max(0, depth - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * A contiguous range of source lines (1-based, inclusive).
+     */
+    public record CodeChunk(int startLine, int endLine, String text) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.yourorg.aicode.service;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 64-bit SimHash of source code over shingles of normalized tokens, used to find near-duplicate
+ * submissions ({@link NearDuplicateIndex}). Comments and layout are dropped and identifiers and
+ * literals become placeholders, so renaming variables or reformatting keeps the fingerprint and
+ * editing a line or two flips only a few of its bits. Comment syntax depends on the language
+ * ({@code #} is code in Java or C); where the language is unknown, comments are kept as code.
+ * Fingerprints are stored ({@code code_submissions.code_simhash}); changing the normalization
+ * means bumping the fingerprint version in schema.sql, which clears them for recomputation.
+ */
+final class CodeFingerprint {
+
+    static final int SHINGLE_TOKENS = 4;
+
+    private static final Set<String> C_STYLE = Set.of("java", "kotlin", "scala", "groovy", "javascript", "js",
+        "typescript", "ts", "c", "cpp", "c++", "csharp", "c#", "cs", "go", "rust", "swift", "dart");
+    private static final Set<String> HASH_STYLE = Set.of("python", "py", "ruby", "rb", "shell", "bash", "sh",
+        "perl", "r", "yaml", "yml");
+
+    private static final String BLOCK_COMMENT = "/\\*.*?(?:\\*/|\\z)";
+    private static final String LINE_COMMENT = "//[^\\n]*";
+    private static final String HASH_COMMENT = "#[^\\n]*";
+
+    private static final Pattern C_STYLE_TOKEN = compile(BLOCK_COMMENT + "|" + LINE_COMMENT);
+    private static final Pattern HASH_STYLE_TOKEN = compile(HASH_COMMENT);
+    private static final Pattern PHP_TOKEN = compile(BLOCK_COMMENT + "|" + LINE_COMMENT + "|" + HASH_COMMENT);
+    private static final Pattern TOKEN = compile(null);
+
+    // Keywords of the common languages keep their identity; any other word is an identifier
+    private static final Set<String> KEYWORDS = Set.of("abstract", "and", "async", "await", "boolean", "break",
+        "case", "catch", "char", "class", "const", "continue", "def", "default", "defer", "delete", "do", "double",
+        "elif", "else", "enum", "except", "extends", "false", "final", "finally", "float", "fn", "for", "func",
+        "function", "go", "if", "impl", "implements", "import", "in", "instanceof", "int", "interface", "is",
+        "lambda", "let", "long", "match", "mut", "new", "nil", "none", "not", "null", "or", "package", "pass",
+        "private", "protected", "pub", "public", "raise", "return", "self", "static", "struct", "super", "switch",
+        "synchronized", "this", "throw", "throws", "true", "try", "type", "var", "void", "while", "with", "yield");
+
+    private static final long IDENTIFIER = hash("\u0000id");
+    private static final long STRING = hash("\u0000str");
+    private static final long NUMBER = hash("\u0000num");
+
+    private CodeFingerprint() {
+    }
+
+    /**
+     * Fingerprint of {@code code}, 0 when it has no tokens.
+     */
+    static long simhash(String code, String language) {
+        if (code == null || code.isEmpty()) {
+            return 0;
+        }
+        int[] weights = new int[Long.SIZE];
+        long[] window = new long[SHINGLE_TOKENS];
+        int tokens = 0;
+        Matcher matcher = tokenPattern(language).matcher(code);
+        while (matcher.find()) {
+            long token;
+            if (matcher.group(1) != null) {
+                token = STRING;
+            } else if (matcher.group(2) != null) {
+                String word = matcher.group(2);
+                String keyword = word.toLowerCase(Locale.ROOT);
+                token = KEYWORDS.contains(keyword) ? hash(keyword) : IDENTIFIER;
+            } else if (matcher.group(3) != null) {
+                token = NUMBER;
+            } else if (matcher.group(4) != null) {
+                token = hash(matcher.group(4));
+            } else {
+                continue;
+            }
+            window[tokens++ % SHINGLE_TOKENS] = token;
+            if (tokens >= SHINGLE_TOKENS) {
+                addShingle(weights, window, tokens, SHINGLE_TOKENS);
+            }
+        }
+        if (tokens == 0) {
+            return 0;
+        }
+        if (tokens < SHINGLE_TOKENS) {
+            addShingle(weights, window, tokens, tokens);
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    private static Pattern tokenPattern(String language) {
+        String lang = language == null ? "" : language.trim().toLowerCase(Locale.ROOT);
+        if (C_STYLE.contains(lang)) {
+            return C_STYLE_TOKEN;
+        }
+        if (HASH_STYLE.contains(lang)) {
+            return HASH_STYLE_TOKEN;
+        }
+        return lang.equals("php") ? PHP_TOKEN : TOKEN;
+    }
+
+    // Comments (no capturing groups) are skipped, then string literals, words, numbers and any other character
+    private static Pattern compile(String comments) {
+        return Pattern.compile((comments == null ? "" : comments + "|")
+            + "(\"(?:\\\\.|[^\"\\\\\\n])*\"|'(?:\\\\.|[^'\\\\\\n])*'|`[^`]*`)"
+            + "|([A-Za-z_$][\\w$]*)"
+            + "|(\\d[\\w.]*)"
+            + "|(\\S)",
+        Pattern.DOTALL);
+    }
+
+    /**
+     * Add the last {@code length} tokens, in order, as one shingle.
+     */
+    private static void addShingle(int[] weights, long[] window, int tokens, int length) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = tokens - length; i < tokens; i++) {
+            h = (h ^ window[i % SHINGLE_TOKENS]) * 0x100000001b3L;
+        }
+        h = mix(h);
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            weights[bit] += ((h >>> bit) & 1) == 1 ? 1 : -1;
+        }
+    }
+
+    /**
+     * FNV-1a over the UTF-16 units of {@code text}, finished with {@link #mix(long)}.
+     */
+    static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h = (h ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // MurmurHash3 finalizer: every input bit affects every output bit
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
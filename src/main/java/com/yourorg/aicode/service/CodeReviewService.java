@@ -37,184 +37,574 @@
 
 package com.yourorg.aicode.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.aicode.client.GeminiCall;
+import com.yourorg.aicode.client.GeminiClient;
 import com.yourorg.aicode.model.CodeSubmission;
+import com.yourorg.aicode.model.dto.ReviewFinding;
 import com.yourorg.aicode.model.dto.ReviewRequest;
 import com.yourorg.aicode.model.dto.ReviewResponse;
-import com.yourorg.aicode.repository.CodeSubmissionRepository;
+import com.yourorg.aicode.service.CodeChunker.CodeChunk;
+import com.yourorg.aicode.service.IncrementalReviewPlanner.Plan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Service
 public class CodeReviewService {
 
-    private final CodeSubmissionRepository repository;
+    private static final Logger log = LoggerFactory.getLogger(CodeReviewService.class);
+
+    /**
+     * Version of the review prompt. Bump whenever {@link #buildPrompt(String, String)} changes
+     * so that cached reviews produced by an older prompt are no longer served. Cache keys also
+     * include the prompt compaction settings, see {@link #promptVersion}.
+     */
+    static final String PROMPT_VERSION = "2";
+
+    private static final String REVIEW_INSTRUCTIONS = "You are an expert senior software engineer who reviews code. Respond strictly with JSON (no surrounding markdown) that matches the schema: {\"score\": int 0-100, \"summary\": string, \"comments\": string, \"issues\": [string], \"suggestions\": [string], \"bestPractices\": [string], \"fixCode\": string|null }.";
+
+    private final ReviewCacheService reviewCache;
+
+    private final GeminiClient geminiClient;
+
+    private final CodeChunker chunker;
+
+    private final ThreadPoolExecutor chunkExecutor;
+
+    private final ThreadPoolExecutor ruleExecutor;
+
+    private final IncrementalReviewPlanner incrementalPlanner;
+
+    private final ReviewCoalescer coalescer;
+
+    private final LocalRuleEngine ruleEngine;
+
+    private final PromptCompactor promptCompactor;
+
+    private final SubmissionWriter submissionWriter;
+
+    private final NearDuplicateIndex nearDuplicates;
+
+    // Prompt version plus compaction settings: what the cached reviews depend on besides the code
+    private final String promptVersion;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     @Value("${ai.provider:gemini}")
     private String aiProvider;
 
-    // Gemini / Generative API configuration
-    @Value("${generative.api-key:}")
-    private String generativeApiKey;
-    
-    @Value("${generative.model:gemini-2.0-flash-exp}")
-    private String generativeModel;
-
-    public CodeReviewService(CodeSubmissionRepository repository) {
-        this.repository = repository;
+    // Files above this estimated token count are split and reviewed chunk by chunk
+    @Value("${review.chunking.max-tokens:6000}")
+    private int chunkMaxTokens;
+
+    // Provider time budget when the client does not send X-Review-Deadline-Ms
+    @Value("${review.deadline.default:45s}")
+    private Duration defaultDeadline;
+
+    public CodeReviewService(ReviewCacheService reviewCache, GeminiClient geminiClient,
+                             CodeChunker chunker, @Qualifier("reviewChunkExecutor") ThreadPoolExecutor chunkExecutor,
+                             IncrementalReviewPlanner incrementalPlanner, ReviewCoalescer coalescer,
+                             LocalRuleEngine ruleEngine, @Qualifier("ruleAnalysisExecutor") ThreadPoolExecutor ruleExecutor,
+                             PromptCompactor promptCompactor,
+                             SubmissionWriter submissionWriter, NearDuplicateIndex nearDuplicates) {
+        this.reviewCache = reviewCache;
+        this.geminiClient = geminiClient;
+        this.chunker = chunker;
+        this.chunkExecutor = chunkExecutor;
+        this.incrementalPlanner = incrementalPlanner;
+        this.coalescer = coalescer;
+        this.ruleEngine = ruleEngine;
+        this.ruleExecutor = ruleExecutor;
+        this.promptCompactor = promptCompactor;
+        this.submissionWriter = submissionWriter;
+        this.nearDuplicates = nearDuplicates;
+        this.promptVersion = PROMPT_VERSION + "/" + promptCompactor.settingsKey();
     }
 
     /**
-     * Review submitted code. If an AI integration is available it can be plugged later.
-     * For now use a simple heuristic: score by length and presence of TODO/print stack traces.
+     * Review submitted code with Gemini when it is available, otherwise with the local
+     * rule engine.
      */
     public ReviewResponse review(ReviewRequest request) {
-        CodeSubmission submission = new CodeSubmission();
-        submission.setAuthor(request.getAuthor());
-        submission.setCode(request.getCode());
-        submission.setLanguage(request.getLanguage());
-        submission.setCreatedAt(Instant.now());
+        return save(prepareReview(request, null));
+    }
+
+    /**
+     * Like {@link #review(ReviewRequest)}, handing the local rule review to {@code onPreliminary}
+     * as soon as it is ready, before the AI review completes.
+     */
+    public ReviewResponse review(ReviewRequest request, Consumer<ReviewResponse> onPreliminary) {
+        return save(prepareReview(request, onPreliminary));
+    }
+
+    PendingReview prepareReview(ReviewRequest request) {
+        return prepareReview(request, null);
+    }
 
-        String code = request.getCode() == null ? "" : request.getCode();
+    /**
+     * Compute the review (cache, provider or heuristic) without persisting it, so that callers
+     * such as batch reviews can store many submissions in one transaction. The local rule
+     * engine runs concurrently with the provider call and its findings are merged into the
+     * AI review; if the provider fails or misses the deadline the local review is returned,
+     * marked {@code preliminary}.
+     */
+    PendingReview prepareReview(ReviewRequest request, Consumer<ReviewResponse> onPreliminary) {
+        String code = incrementalPlanner.resolveCode(request);
+        CodeSubmission submission = newSubmission(request, code);
+
+        CompletableFuture<List<LocalRuleEngine.Finding>> local =
+            CompletableFuture.supplyAsync(() -> ruleEngine.analyze(code, request.getLanguage()), ruleExecutor);
+        if (onPreliminary != null) {
+            local.thenAccept(findings -> {
+                ReviewResponse preliminary = heuristicReview(code, findings);
+                preliminary.setPreliminary(true);
+                onPreliminary.accept(preliminary);
+            });
+        }
 
+        // Identical code/language/model/prompt: serve the stored review without calling the provider
+        String cacheKey = reviewCache.cacheKey(code, request.getLanguage(), geminiClient.getModel(), promptVersion);
+        Optional<String> cached = reviewCache.get(cacheKey);
+        if (cached.isPresent()) {
+            ReviewResponse cachedResponse = readCachedReview(cacheKey, cached.get());
+            if (cachedResponse != null) {
+                return pendingWithLocalFindings(submission, cachedResponse, localFindings(local));
+            }
+        }
+
+        boolean providerFailed = false;
         // Provider selection: gemini preferred, openai as fallback
-        if (aiProvider != null && aiProvider.equalsIgnoreCase("gemini") && generativeApiKey != null && !generativeApiKey.isBlank()) {
+        if (isGeminiEnabled()) {
             try {
-                ReviewResponse aiResponse = callGeminiForReview(code);
-                String raw = objectMapper.writeValueAsString(aiResponse);
-                submission.setAiFeedback(raw);
-                submission.setScore(aiResponse.getScore());
-                CodeSubmission saved = repository.save(submission);
-
-                aiResponse.setSubmissionId(saved.getId());
-                return aiResponse;
+                GeminiCall call = GeminiCall.withBudget(deadlineFor(request));
+                // Reviews against the caller's own base are neither shared with other callers nor cached
+                Optional<ProviderReview> incremental = reviewIncrementally(request, submission, call);
+                if (incremental.isPresent()) {
+                    submission.setHedgeWon(call.isHedgeWon());
+                    return pendingWithLocalFindings(submission, incremental.get().review(), localFindings(local));
+                }
+
+                // Identical requests already in flight share that provider call
+                ReviewResponse[] ownReview = new ReviewResponse[1];
+                ReviewCoalescer.SharedReview shared = coalescer.execute(cacheKey, call.remaining(), () -> {
+                    ProviderReview aiReview = reviewWithProvider(code, request.getLanguage(), call);
+                    reviewCache.put(cacheKey, aiReview.json(), aiReview.review().getScore(), request.getLanguage(),
+                        geminiClient.getModel(), promptVersion);
+                    ownReview[0] = aiReview.review();
+                    return new ReviewCoalescer.SharedReview(aiReview.json(), call.isHedgeWon());
+                });
+                submission.setHedgeWon(shared.hedgeWon());
+                // Only coalesced callers bind their own copy of the shared JSON
+                ReviewResponse aiResponse = ownReview[0] != null
+                    ? ownReview[0]
+                    : objectMapper.readValue(shared.json(), ReviewResponse.class);
+                return pendingWithLocalFindings(submission, aiResponse, localFindings(local));
             } catch (Exception e) {
-                System.err.println("Gemini call failed, falling back: " + e.getMessage());
+                log.warn("Gemini call failed, falling back: {}", e.getMessage());
+                providerFailed = true;
             }
         }
 
         // No OpenAI support: only Gemini/generative API is used. If generative key not available, fall back to heuristic.
+        ReviewResponse resp = heuristicReview(code, localFindings(local));
+        resp.setPreliminary(providerFailed);
+        return pendingReview(submission, resp);
+    }
 
-        // --- Fallback heuristic (keeps previous behavior) ---
-        int lengthScore = Math.min(50, code.length() / 10);
-        int penalty = 0;
-        List<String> issues = new ArrayList<>();
-        if (code.contains("TODO")) {
-            penalty += 10;
-            issues.add("Contains TODO marks");
+    /**
+     * Streaming variant of {@link #review(ReviewRequest)}. Top-level review fields are handed
+     * to {@code onField} as soon as the model has produced them (array items additionally as
+     * {@code "<field>.item"}); the submission is persisted once the review is complete.
+     */
+    public ReviewResponse streamReview(ReviewRequest request, BiConsumer<String, JsonNode> onField) {
+        String code = incrementalPlanner.resolveCode(request);
+
+        // Large files are reviewed in parallel chunks and incremental reviews are merged with
+        // the base review; their fields are emitted once merged
+        if (isGeminiEnabled() && (CodeChunker.estimateTokens(code) > chunkMaxTokens || request.getBaseSubmissionId() != null)) {
+            PendingReview merged = prepareReview(request, null);
+            emitFields(merged.response(), onField);
+            return save(merged);
+        }
+
+        CodeSubmission submission = newSubmission(request, code);
+
+        // Local analysis takes well under a millisecond: show it before the model starts writing
+        List<LocalRuleEngine.Finding> localFindings = ruleEngine.analyze(code, request.getLanguage());
+        ReviewResponse preliminary = heuristicReview(code, localFindings);
+        preliminary.setPreliminary(true);
+        onField.accept("preliminary", objectMapper.valueToTree(preliminary));
+
+        String cacheKey = reviewCache.cacheKey(code, request.getLanguage(), geminiClient.getModel(), promptVersion);
+        Optional<String> cached = reviewCache.get(cacheKey);
+        if (cached.isPresent()) {
+            ReviewResponse cachedResponse = readCachedReview(cacheKey, cached.get());
+            if (cachedResponse != null) {
+                PendingReview merged = pendingWithLocalFindings(submission, cachedResponse, localFindings);
+                emitFields(merged.response(), onField);
+                return save(merged);
+            }
+        }
+
+        boolean providerFailed = false;
+        AtomicBoolean streamed = new AtomicBoolean();
+        if (isGeminiEnabled()) {
+            try {
+                GeminiCall call = GeminiCall.withBudget(deadlineFor(request));
+                ReviewStreamParser parser = new ReviewStreamParser(objectMapper, (name, value) -> {
+                    streamed.set(true);
+                    onField.accept(name, value);
+                });
+                String prompt = buildPrompt(code, request.getLanguage());
+                promptCompactor.checkBudget(prompt);
+                geminiClient.streamGenerateContent(buildRequestBody(prompt), call, parser::feed);
+                ReviewResponse aiResponse = objectMapper.treeToValue(parser.result(), ReviewResponse.class);
+                clampScore(aiResponse);
+                String raw = objectMapper.writeValueAsString(aiResponse);
+                reviewCache.put(cacheKey, raw, aiResponse.getScore(), request.getLanguage(), geminiClient.getModel(), promptVersion);
+                PendingReview merged = pendingWithLocalFindings(submission, aiResponse, localFindings);
+                onField.accept("findings", objectMapper.valueToTree(merged.response().getFindings()));
+                return save(merged);
+            } catch (Exception e) {
+                log.warn("Gemini streaming call failed, falling back: {}", e.getMessage());
+                providerFailed = true;
+            }
         }
-        if (code.contains("System.out.println") || code.contains("print(")) {
-            penalty += 5;
-            issues.add("Contains printing statements (remove or use logger)");
+
+        if (streamed.get()) {
+            // The client already has part of the AI review: have it drop those fields first
+            onField.accept("reset", objectMapper.createObjectNode().put("source", ReviewFinding.SOURCE_LOCAL));
         }
+        ReviewResponse resp = heuristicReview(code, localFindings);
+        resp.setPreliminary(providerFailed);
+        emitFields(resp, onField);
+        return save(pendingReview(submission, resp));
+    }
 
-        int score = Math.max(0, 100 - (50 - lengthScore) - penalty);
+    private Duration deadlineFor(ReviewRequest request) {
+        Long deadlineMs = request.getDeadlineMs();
+        return deadlineMs != null && deadlineMs > 0 ? Duration.ofMillis(deadlineMs) : defaultDeadline;
+    }
 
-        ReviewResponse resp = new ReviewResponse();
-        String aiFeedback = "score=" + score + "; issues=" + issues.toString();
-        submission.setAiFeedback(aiFeedback);
-        submission.setScore(score);
+    private boolean isGeminiEnabled() {
+        // While the circuit breaker is open this is false and reviews use the heuristic at once
+        return aiProvider != null && aiProvider.equalsIgnoreCase("gemini") && geminiClient.isAvailable();
+    }
+
+    private CodeSubmission newSubmission(ReviewRequest request, String code) {
+        CodeSubmission submission = new CodeSubmission();
+        submission.setOwner(request.getOwner());
+        submission.setAuthor(request.getAuthor());
+        submission.setCode(code);
+        submission.setCodeSimhash(CodeFingerprint.simhash(code, request.getLanguage()));
+        submission.setLanguage(request.getLanguage());
+        submission.setBaseSubmissionId(request.getBaseSubmissionId());
+        submission.setCreatedAt(Instant.now());
+        return submission;
+    }
+
+    /**
+     * Merge local findings into an AI review; the merged review is what gets stored.
+     */
+    private PendingReview pendingWithLocalFindings(CodeSubmission submission, ReviewResponse aiResponse,
+                                                   List<LocalRuleEngine.Finding> localFindings) {
+        return pendingReview(submission, ReviewMerger.withLocalFindings(aiResponse, localFindings));
+    }
+
+    private List<LocalRuleEngine.Finding> localFindings(CompletableFuture<List<LocalRuleEngine.Finding>> local) {
+        try {
+            return local.join();
+        } catch (CompletionException e) {
+            log.warn("Local rule analysis failed: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Attach the review to its submission. AI and fallback reviews are stored alike, as the
+     * review JSON (jsonb), so findings can be queried in the database.
+     */
+    private PendingReview pendingReview(CodeSubmission submission, ReviewResponse resp) {
+        try {
+            submission.setAiFeedback(objectMapper.writeValueAsString(resp));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize review", e);
+        }
+        submission.setScore(resp.getScore());
+        return new PendingReview(submission, resp);
+    }
+
+    private ReviewResponse save(PendingReview pending) {
+        // The id is assigned up front; in write-behind mode the row is written later
+        submissionWriter.write(pending.submission());
+        pending.response().setSubmissionId(pending.submission().getId());
+        nearDuplicates.add(pending.submission(), pending.response());
+        return pending.response();
+    }
+
+    private ReviewResponse readCachedReview(String cacheKey, String json) {
+        try {
+            return objectMapper.readValue(json, ReviewResponse.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cached review {}: {}", cacheKey, e.getMessage());
+            return null;
+        }
+    }
 
-        CodeSubmission saved = repository.save(submission);
+    private void emitFields(ReviewResponse resp, BiConsumer<String, JsonNode> onField) {
+        JsonNode tree = objectMapper.valueToTree(resp);
+        tree.properties().forEach(field -> {
+            if (!"submissionId".equals(field.getKey())) {
+                onField.accept(field.getKey(), field.getValue());
+            }
+        });
+    }
 
-        resp.setSubmissionId(saved.getId());
-        resp.setScore(score);
-        resp.setComments("Basic heuristic review (fallback)");
-        resp.setSummary("Length-based heuristic review");
+    /**
+     * Review from the local rule engine: one issue per rule hit (with its line), score reduced
+     * by the penalty of every rule that fired.
+     */
+    private ReviewResponse heuristicReview(String code, List<LocalRuleEngine.Finding> findings) {
+        int penalty = 0;
+        Set<String> firedRules = new HashSet<>();
+        Set<String> suggestions = new LinkedHashSet<>();
+        List<String> issues = new ArrayList<>(findings.size());
+        List<ReviewFinding> tagged = new ArrayList<>(findings.size());
+        for (LocalRuleEngine.Finding finding : findings) {
+            String issue = ReviewMerger.localIssue(finding);
+            issues.add(issue);
+            tagged.add(new ReviewFinding(ReviewFinding.SOURCE_LOCAL, finding.ruleId(),
+                FindingCategories.of(finding.message()), finding.line(), issue));
+            if (firedRules.add(finding.ruleId())) {
+                // Full penalty once per rule, one more point per repeat up to the same again
+                penalty += finding.penalty() + Math.min(finding.penalty(), finding.occurrences() - 1);
+                if (finding.suggestion() != null) {
+                    suggestions.add(finding.suggestion());
+                }
+            }
+        }
+
+        ReviewResponse resp = new ReviewResponse();
+        resp.setScore(Math.max(0, 100 - penalty));
+        resp.setComments("Local rule-based review (fallback)");
+        resp.setSummary(findings.isEmpty()
+            ? "No local rule findings"
+            : firedRules.size() + " local rule(s) matched " + issues.size() + " time(s)");
         resp.setIssues(issues.toArray(new String[0]));
-        resp.setSuggestions(new String[]{"Remove TODOs before finalizing", "Replace prints with proper logging"});
+        resp.setSuggestions(suggestions.toArray(new String[0]));
         resp.setBestPractices(new String[]{"Write unit tests", "Follow single responsibility principle"});
+        resp.setFindings(tagged);
+        resp.setSource(ReviewFinding.SOURCE_LOCAL);
 
-        if (code.contains("System.out.println")) {
+        if (firedRules.contains("java.system-out")) {
             resp.setFixCode(code.replace("System.out.println", "logger.info"));
         }
 
         return resp;
     }
 
-    private ReviewResponse callGeminiForReview(String code) throws IOException {
+    private String buildPrompt(String code, String language) {
         // Build a prompt instructing the model to return strict JSON
-        String prompt = "You are an expert senior software engineer who reviews code. Respond strictly with JSON (no surrounding markdown) that matches the schema: {\"score\": int 0-100, \"summary\": string, \"comments\": string, \"issues\": [string], \"suggestions\": [string], \"bestPractices\": [string], \"fixCode\": string|null }.\n\nCode:\n" + code + "\n\nBe concise but thorough.";
+        return REVIEW_INSTRUCTIONS + lineNumberNote() + "\n\nCode:\n" + promptCompactor.compact(code, language, 1)
+            + "\n\nBe concise but thorough.";
+    }
+
+    private String buildChunkPrompt(CodeChunk chunk, int part, int parts, String language) {
+        String file = language == null || language.isBlank() ? "source file" : language + " file";
+        return REVIEW_INSTRUCTIONS + lineNumberNote() + "\n\nThe code below is part " + part + " of " + parts
+            + " of a larger " + file + " (lines " + chunk.startLine() + "-" + chunk.endLine() + "). Review only this"
+            + " part and do not report declarations that may live in other parts as missing.\n\nCode:\n"
+            + promptCompactor.compact(chunk.text(), language, chunk.startLine()) + "\n\nBe concise but thorough.";
+    }
+
+    private String lineNumberNote() {
+        return promptCompactor.numbersLines()
+            ? " Each code line starts with its line number (\"12| \"); use these numbers when referring to lines."
+            : "";
+    }
+
+    private String buildDiffPrompt(String diff, String language) {
+        String file = language == null || language.isBlank() ? "source file" : language + " file";
+        return REVIEW_INSTRUCTIONS + "\n\nThis " + file + " was reviewed before. Below is a unified diff of the"
+            + " latest edit with a few lines of context. Review only the added lines (prefixed with '+') and how they"
+            + " interact with the surrounding context; do not report issues in unchanged lines.\n\nDiff:\n" + diff
+            + "\n\nBe concise but thorough.";
+    }
+
+    private String buildRequestBody(String prompt) throws IOException {
+        // Build request body for Google Generative Language API
+        JsonNode requestBody = objectMapper.createObjectNode()
+            .set("contents", objectMapper.createArrayNode()
+                .add(objectMapper.createObjectNode()
+                    .set("parts", objectMapper.createArrayNode()
+                        .add(objectMapper.createObjectNode()
+                            .put("text", prompt)))));
+
+        return objectMapper.writeValueAsString(requestBody);
+    }
+
+    /**
+     * Review with the provider, splitting large files on syntactic boundaries and reviewing the
+     * chunks in parallel so latency follows the biggest chunk rather than the whole file.
+     */
+    private ProviderReview reviewWithProvider(String code, String language, GeminiCall call) throws IOException {
+        List<CodeChunk> chunks = chunker.split(code, language, chunkMaxTokens);
+        if (chunks.size() == 1) {
+            return callGeminiForReview(buildPrompt(code, language), call);
+        }
+
+        List<CompletableFuture<ReviewResponse>> futures = new ArrayList<>(chunks.size());
+        List<Integer> weights = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            String prompt = buildChunkPrompt(chunks.get(i), i + 1, chunks.size(), language);
+            weights.add(chunks.get(i).text().length());
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return callGeminiForReview(prompt, call).review();
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, chunkExecutor));
+        }
 
         try {
-            // Build request body for Google Generative Language API
-            JsonNode requestBody = objectMapper.createObjectNode()
-                .set("contents", objectMapper.createArrayNode()
-                    .add(objectMapper.createObjectNode()
-                        .set("parts", objectMapper.createArrayNode()
-                            .add(objectMapper.createObjectNode()
-                                .put("text", prompt)))));
-
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-
-            // Call Generative Language API with API key
-            String endpoint = "https://generativelanguage.googleapis.com/v1beta/models/" + generativeModel + ":generateContent?key=" + generativeApiKey;
-
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(endpoint))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
-                .build();
-
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() / 100 != 2) {
-                throw new IOException("Gemini API error: " + response.statusCode() + " -> " + response.body());
-            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw new IOException("Chunked review failed: " + cause.getMessage(), cause);
+        }
+        List<ReviewResponse> parts = new ArrayList<>(futures.size());
+        for (CompletableFuture<ReviewResponse> future : futures) {
+            parts.add(future.join());
+        }
+        return serialized(ReviewMerger.merge(parts, weights));
+    }
 
-            // Parse response
-            JsonNode root = objectMapper.readTree(response.body());
-            JsonNode candidates = root.path("candidates");
-            
-            if (!candidates.isArray() || candidates.size() == 0) {
-                throw new IOException("No candidates in Gemini response: " + response.body());
-            }
+    /**
+     * Review only the changed regions against the base submission and merge the result with the
+     * base findings that still apply. Without a base in the request, the nearest earlier
+     * submission of the same user (near-duplicate code) is used. Empty when a full review is
+     * needed instead.
+     */
+    private Optional<ProviderReview> reviewIncrementally(ReviewRequest request, CodeSubmission submission,
+                                                         GeminiCall call) throws IOException {
+        Long baseSubmissionId = request.getBaseSubmissionId() != null
+            ? request.getBaseSubmissionId()
+            : nearDuplicates.find(submission).orElse(null);
+        if (baseSubmissionId == null) {
+            return Optional.empty();
+        }
+        Optional<Plan> plan = incrementalPlanner.plan(request, submission.getCode(), baseSubmissionId);
+        if (plan.isEmpty()) {
+            return Optional.empty();
+        }
+        submission.setBaseSubmissionId(plan.get().baseSubmissionId());
+        if (!plan.get().hasChanges()) {
+            return Optional.of(serialized(plan.get().carriedOver()));
+        }
 
-            String content = candidates.get(0)
-                .path("content")
-                .path("parts")
-                .get(0)
-                .path("text")
-                .asText();
-
-            // Strip markdown code fences if present
-            content = content.trim();
-            if (content.startsWith("```")) {
-                int idx = content.indexOf('\n');
-                if (idx > 0) content = content.substring(idx + 1);
-                if (content.endsWith("```")) content = content.substring(0, content.length() - 3).trim();
-            }
+        ReviewResponse diffReview = callGeminiForReview(buildDiffPrompt(plan.get().diff(), request.getLanguage()), call)
+            .review();
+        ReviewResponse merged = ReviewMerger.merge(List.of(diffReview, plan.get().carriedOver()),
+            List.of(plan.get().changedLines(), Math.max(1, plan.get().unchangedLines())));
+        log.debug("Incremental review against submission {}: {} changed lines",
+            plan.get().baseSubmissionId(), plan.get().changedLines());
+        return Optional.of(serialized(merged));
+    }
+
+    private ProviderReview callGeminiForReview(String prompt, GeminiCall call) throws IOException {
+        try {
+            promptCompactor.checkBudget(prompt);
+            String jsonBody = buildRequestBody(prompt);
 
-            // Parse JSON into ReviewResponse
-            ReviewResponse rr = objectMapper.readerFor(ReviewResponse.class).readValue(content);
-            
-            // Ensure score bounds
-            int s = rr.getScore();
-            if (s < 0) rr.setScore(0);
-            if (s > 100) rr.setScore(100);
-
-            return rr;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException("Request interrupted: " + e.getMessage(), e);
+            // Shared, pooled client: connection reuse, timeouts and in-flight limits live there.
+            // The response is parsed while it is read; the model's text is bound in place.
+            return geminiClient.generateContent(jsonBody, call, this::readModelReview);
         } catch (Exception e) {
             throw new IOException("Gemini API call failed: " + e.getMessage(), e);
         }
     }
 
-    
+    /**
+     * Bind the model's JSON, optionally wrapped in markdown code fences, to a review straight
+     * from the response parser's buffer. The only copy made is the JSON kept for the cache.
+     */
+    private ProviderReview readModelReview(char[] text, int offset, int length) throws IOException {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && Character.isWhitespace(text[start])) start++;
+        while (end > start && Character.isWhitespace(text[end - 1])) end--;
+
+        // Strip markdown code fences if present
+        if (isFence(text, start, end)) {
+            int newline = start;
+            while (newline < end && text[newline] != '\n') newline++;
+            if (newline < end) start = newline + 1;
+            if (isFence(text, end - 3, end)) {
+                end -= 3;
+                while (end > start && Character.isWhitespace(text[end - 1])) end--;
+            }
+        }
 
+        ReviewResponse rr;
+        try (JsonParser parser = objectMapper.getFactory().createParser(text, start, end - start)) {
+            rr = objectMapper.readValue(parser, ReviewResponse.class);
+        }
+        if (clampScore(rr)) {
+            return serialized(rr);
+        }
+        return new ProviderReview(rr, new String(text, start, end - start));
+    }
+
+    private static boolean isFence(char[] text, int from, int end) {
+        return from >= 0 && end - from >= 3 && text[from] == '`' && text[from + 1] == '`' && text[from + 2] == '`';
+    }
+
+    private ProviderReview serialized(ReviewResponse review) throws IOException {
+        return new ProviderReview(review, objectMapper.writeValueAsString(review));
+    }
+
+    /**
+     * @return whether the score had to be clamped
+     */
+    private static boolean clampScore(ReviewResponse rr) {
+        // Ensure score bounds
+        int s = rr.getScore();
+        if (s < 0) rr.setScore(0);
+        if (s > 100) rr.setScore(100);
+        return s < 0 || s > 100;
+    }
+
+    /**
+     * A provider review together with its JSON form.
+     */
+    private record ProviderReview(ReviewResponse review, String json) {
+    }
+
+    /**
+     * A review that has been computed but not yet persisted.
+     */
+    record PendingReview(CodeSubmission submission, ReviewResponse response) {
+    }
 }
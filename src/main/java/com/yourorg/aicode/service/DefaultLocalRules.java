@@ -0,0 +1,116 @@
+package com.yourorg.aicode.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Built-in rules of the {@link LocalRuleEngine}. Additional {@link LocalRuleProvider} beans
+ * can add more.
+ */
+@Component
+public class DefaultLocalRules implements LocalRuleProvider {
+
+    private static final Set<String> ALL = Set.of();
+    private static final Set<String> JAVA = Set.of("java");
+    private static final Set<String> JVM = Set.of("java", "kotlin", "scala");
+    private static final Set<String> PYTHON = Set.of("python");
+    private static final Set<String> JS = Set.of("javascript", "typescript");
+    private static final Set<String> C = Set.of("c", "cpp");
+    private static final Set<String> CSHARP = Set.of("csharp");
+    private static final Set<String> GO = Set.of("go");
+    private static final Set<String> RUST = Set.of("rust");
+    private static final Set<String> PHP = Set.of("php");
+    private static final Set<String> RUBY = Set.of("ruby");
+    private static final Set<String> SQL = Set.of("sql", "java", "python", "javascript", "typescript", "php", "csharp", "go");
+
+    private final List<LocalRule> rules = new ArrayList<>();
+
+    public DefaultLocalRules() {
+        // Unfinished work
+        add("todo", "TODO", "Contains TODO marks", "Remove TODOs before finalizing", 10, false, ALL);
+        add("fixme", "FIXME", "Contains FIXME marks", "Resolve FIXMEs before merging", 10, false, ALL);
+        add("xxx", "XXX", "Contains XXX marks", "Resolve XXX markers before merging", 5, false, ALL);
+        add("hack", "HACK", "Contains HACK marks", "Replace the hack with a proper solution", 5, false, ALL);
+
+        // Secrets
+        add("private-key", "-----BEGIN", "Embedded key or certificate material", "Load keys from a secret store", 25, false, ALL);
+        add("aws-access-key", "AKIA", "Possible AWS access key id", "Never commit credentials; use environment variables", 15, true, ALL);
+        add("password-literal", "password = \"", "Hard-coded password", "Read passwords from configuration or a secret store", 20, false, ALL);
+        add("password-literal-single", "password = '", "Hard-coded password", "Read passwords from configuration or a secret store", 20, false, ALL);
+        add("api-key-literal", "apiKey = \"", "Hard-coded API key", "Read API keys from configuration or a secret store", 20, false, ALL);
+
+        // Java / JVM
+        add("java.system-out", "System.out.println", "Contains printing statements (remove or use logger)", "Replace prints with proper logging", 5, false, JAVA);
+        add("java.system-out-print", "System.out.print(", "Contains printing statements (remove or use logger)", "Replace prints with proper logging", 5, false, JAVA);
+        add("java.system-err", "System.err.println", "Writes to System.err", "Replace prints with proper logging", 5, false, JAVA);
+        add("java.print-stack-trace", ".printStackTrace()", "Prints stack traces instead of logging them", "Log the exception with a logger", 5, false, JVM);
+        add("java.catch-throwable", "catch (Throwable", "Catches Throwable, including Errors", "Catch the specific exceptions you can handle", 10, false, JAVA);
+        add("java.catch-exception", "catch (Exception e) {}", "Swallows exceptions silently", "Handle or at least log the exception", 10, false, JAVA);
+        add("java.system-exit", "System.exit(", "Calls System.exit", "Let the application shut down normally", 10, false, JVM);
+        add("java.thread-sleep", "Thread.sleep(", "Uses Thread.sleep", "Prefer scheduled executors or proper synchronization", 3, false, JVM);
+        add("java.string-equals-literal", "== \"", "Compares strings with ==", "Use equals() to compare strings", 10, false, JAVA);
+        add("java.new-boolean", "new Boolean(", "Boxes booleans with the deprecated constructor", "Use Boolean.valueOf", 2, false, JAVA);
+        add("java.new-integer", "new Integer(", "Boxes integers with the deprecated constructor", "Use Integer.valueOf", 2, false, JAVA);
+        add("java.runtime-exec", "Runtime.getRuntime().exec(", "Runs external processes", "Validate inputs and prefer ProcessBuilder", 10, false, JVM);
+        add("java.md5", "MessageDigest.getInstance(\"MD5\")", "Uses MD5", "Use SHA-256 or stronger", 10, false, JVM);
+        add("java.sha1", "MessageDigest.getInstance(\"SHA-1\")", "Uses SHA-1", "Use SHA-256 or stronger", 5, false, JVM);
+        add("java.java-util-random", "new Random(", "Uses java.util.Random", "Use SecureRandom for security-sensitive values", 2, false, JVM);
+        add("java.finalize", "void finalize()", "Overrides finalize()", "Use try-with-resources or Cleaner", 5, false, JAVA);
+
+        // Python
+        add("python.print", "print(", "Contains printing statements (remove or use logger)", "Replace prints with proper logging", 5, true, PYTHON);
+        add("python.bare-except", "except:", "Bare except catches everything", "Catch specific exception types", 10, false, PYTHON);
+        add("python.eval", "eval(", "Uses eval", "Avoid eval on untrusted input", 15, true, PYTHON);
+        add("python.exec", "exec(", "Uses exec", "Avoid exec on untrusted input", 15, true, PYTHON);
+        add("python.pickle-loads", "pickle.loads(", "Unpickles data", "Never unpickle untrusted data", 15, false, PYTHON);
+        add("python.yaml-load", "yaml.load(", "Uses yaml.load", "Use yaml.safe_load", 10, false, PYTHON);
+        add("python.shell-true", "shell=True", "Runs subprocesses through the shell", "Pass an argument list without shell=True", 10, false, PYTHON);
+        add("python.wildcard-import", "import *", "Wildcard import", "Import the names you use", 3, false, PYTHON);
+        add("python.none-compare", "== None", "Compares with None using ==", "Use 'is None'", 3, false, PYTHON);
+        add("python.pdb", "pdb.set_trace()", "Leftover debugger breakpoint", "Remove debugging code", 10, false, PYTHON);
+
+        // JavaScript / TypeScript
+        add("js.console-log", "console.log(", "Contains console.log statements", "Use a logger or remove debugging output", 5, false, JS);
+        add("js.debugger", "debugger;", "Leftover debugger statement", "Remove debugging code", 10, true, JS);
+        add("js.eval", "eval(", "Uses eval", "Avoid eval on untrusted input", 15, true, JS);
+        add("js.inner-html", ".innerHTML =", "Assigns innerHTML", "Use textContent or sanitize the markup", 10, false, JS);
+        add("js.document-write", "document.write(", "Uses document.write", "Manipulate the DOM instead", 5, false, JS);
+        add("js.var", "var ", "Uses var", "Use let or const", 2, true, JS);
+        add("ts.any", ": any", "Uses the any type", "Use a precise type or unknown", 2, false, Set.of("typescript"));
+
+        // C / C++
+        add("c.gets", "gets(", "Uses gets, which cannot be used safely", "Use fgets", 20, true, C);
+        add("c.strcpy", "strcpy(", "Uses strcpy without bounds", "Use strncpy or safer string handling", 10, true, C);
+        add("c.sprintf", "sprintf(", "Uses sprintf without bounds", "Use snprintf", 10, true, C);
+        add("c.system", "system(", "Runs shell commands", "Avoid system() with untrusted input", 10, true, C);
+        add("cpp.using-namespace-std", "using namespace std;", "Imports the whole std namespace", "Qualify names or import selectively", 2, false, Set.of("cpp"));
+
+        // Other languages
+        add("csharp.console-write", "Console.WriteLine(", "Contains console output", "Use a logger", 5, false, CSHARP);
+        add("go.panic", "panic(", "Calls panic", "Return errors instead of panicking", 5, true, GO);
+        add("go.fmt-println", "fmt.Println(", "Contains printing statements", "Use a logger", 3, false, GO);
+        add("rust.unwrap", ".unwrap()", "Calls unwrap()", "Handle the error or use expect with context", 3, false, RUST);
+        add("rust.unsafe", "unsafe {", "Uses an unsafe block", "Document why the unsafe block is sound", 5, true, RUST);
+        add("php.var-dump", "var_dump(", "Leftover var_dump", "Remove debugging code", 5, true, PHP);
+        add("php.eval", "eval(", "Uses eval", "Avoid eval on untrusted input", 15, true, PHP);
+        add("ruby.binding-pry", "binding.pry", "Leftover debugger breakpoint", "Remove debugging code", 10, false, RUBY);
+        add("ruby.puts", "puts ", "Contains printing statements", "Use a logger", 3, true, RUBY);
+
+        // SQL, in SQL files and embedded in code
+        add("sql.select-star", "SELECT * ", "Selects all columns", "List the columns you need", 3, false, SQL);
+        add("sql.select-star-lower", "select * ", "Selects all columns", "List the columns you need", 3, false, SQL);
+    }
+
+    private void add(String id, String pattern, String message, String suggestion, int penalty,
+                     boolean wordStart, Set<String> languages) {
+        rules.add(new LocalRule(id, pattern, message, suggestion, penalty, wordStart, languages));
+    }
+
+    @Override
+    public List<LocalRule> rules() {
+        return List.copyOf(rules);
+    }
+}
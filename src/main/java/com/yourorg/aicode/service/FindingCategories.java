@@ -0,0 +1,75 @@
+package com.yourorg.aicode.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Assigns a coarse category to a review finding from its wording, so that AI issues (free
+ * text) and local rule findings can be counted together. The first category whose keywords
+ * match wins; anything else is {@link #OTHER}.
+ */
+final class FindingCategories {
+
+    static final String SECURITY = "security";
+    static final String ERROR_HANDLING = "error-handling";
+    static final String CORRECTNESS = "correctness";
+    static final String DEBUG_OUTPUT = "debug-output";
+    static final String UNFINISHED = "unfinished";
+    static final String PERFORMANCE = "performance";
+    static final String MAINTAINABILITY = "maintainability";
+    static final String OTHER = "other";
+
+    // Most specific first: "hard-coded password printed to the console" is a security issue
+    private static final Map<String, Pattern> CATEGORIES = new LinkedHashMap<>();
+
+    static {
+        CATEGORIES.put(SECURITY, keywords("password", "secret", "credential", "api key", "access key", "key material",
+            "certificate", "inject", "xss", "sanitiz", "eval", "exec", "unsafe", "untrusted", "md5", "sha-1",
+            "securerandom", "java.util.random", "unpickle", "yaml.load", "shell", "external process", "innerhtml",
+            "document.write", "uses gets", "strcpy", "sprintf", "overflow", "vulnerab", "authenticat", "authoriz",
+            "csrf"));
+        CATEGORIES.put(ERROR_HANDLING, keywords("exception", "catch", "catches", "except", "throwable", "error handling",
+            "panic", "unwrap", "stack trace", "null pointer", "nullpointer", "npe", "finally", "swallow"));
+        CATEGORIES.put(CORRECTNESS, keywords("compares", "comparison", "equals", "race", "thread-safe", "concurren",
+            "off-by-one", "bug", "incorrect", "wrong", "system.exit"));
+        CATEGORIES.put(DEBUG_OUTPUT, keywords("print", "printing", "console", "logger", "logging", "debugger",
+            "breakpoint", "var_dump", "system.err", "system.out", "puts"));
+        CATEGORIES.put(UNFINISHED, keywords("todo", "fixme", "xxx", "hack"));
+        CATEGORIES.put(PERFORMANCE, keywords("performance", "slow", "inefficient", "n+1", "allocation", "complexity",
+            "o(n", "cache", "caching", "thread.sleep", "selects all columns", "memory", "leak", "blocking"));
+        CATEGORIES.put(MAINTAINABILITY, keywords("duplicat", "naming", "readab", "refactor", "magic number",
+            "long method", "wildcard", "deprecated", "any type", "uses var", "namespace", "unused", "dead code",
+            "comment", "documentation", "finalize", "single responsibility", "coupling"));
+    }
+
+    private FindingCategories() {
+    }
+
+    static String of(String message) {
+        if (message == null || message.isBlank()) {
+            return OTHER;
+        }
+        String text = message.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, Pattern> category : CATEGORIES.entrySet()) {
+            if (category.getValue().matcher(text).find()) {
+                return category.getKey();
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * Matcher for any of {@code words} at a word start ("inject" also matches "injection").
+     */
+    private static Pattern keywords(String... words) {
+        StringBuilder regex = new StringBuilder("(?<![\\p{Alnum}_])(?:");
+        List<String> all = List.of(words);
+        for (int i = 0; i < all.size(); i++) {
+            regex.append(i == 0 ? "" : "|").append(Pattern.quote(all.get(i)));
+        }
+        return Pattern.compile(regex.append(')').toString());
+    }
+}
@@ -0,0 +1,203 @@
+package com.yourorg.aicode.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.aicode.model.CodeSubmission;
+import com.yourorg.aicode.model.dto.ReviewFinding;
+import com.yourorg.aicode.model.dto.ReviewRequest;
+import com.yourorg.aicode.model.dto.ReviewResponse;
+import com.yourorg.aicode.repository.CodeSubmissionRepository;
+import com.yourorg.aicode.service.LineDiff.Edit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Decides whether a request can be reviewed incrementally against an earlier submission
+ * ({@code baseSubmissionId}, optionally with a unified {@code diff}) and prepares the diff
+ * to send to the provider plus the findings that can be carried over from the base review.
+ */
+@Component
+public class IncrementalReviewPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalReviewPlanner.class);
+
+    private static final Pattern LINE_REFERENCE = Pattern.compile("\\blines?\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CODE_REFERENCE = Pattern.compile("`([^`]{2,})`");
+
+    private final CodeSubmissionRepository repository;
+    private final SubmissionWriter submissionWriter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${review.diff.context-lines:3}")
+    private int contextLines;
+
+    // Above this share of changed lines a full review is cheaper and more accurate
+    @Value("${review.diff.max-changed-ratio:0.5}")
+    private double maxChangedRatio;
+
+    @Value("${review.diff.max-edits:2000}")
+    private int maxEdits;
+
+    public IncrementalReviewPlanner(CodeSubmissionRepository repository, SubmissionWriter submissionWriter) {
+        this.repository = repository;
+        this.submissionWriter = submissionWriter;
+    }
+
+    /**
+     * The base submission, including one that is still queued for write-behind. Submissions of
+     * other users are not found, so their code never leaks through a diff applied to it.
+     */
+    private Optional<CodeSubmission> findBase(Long id, String owner) {
+        if (owner == null) {
+            return Optional.empty();
+        }
+        Optional<CodeSubmission> queued = submissionWriter.findPending(id);
+        return (queued.isPresent() ? queued : repository.findWithCodeById(id))
+            .filter(base -> owner.equals(base.getOwner()));
+    }
+
+    /**
+     * Resolve the full new code of a request: {@code code} when given, otherwise the base
+     * submission's code with {@code diff} applied.
+     */
+    public String resolveCode(ReviewRequest request) {
+        if (request.getCode() != null || request.getDiff() == null || request.getBaseSubmissionId() == null) {
+            return request.getCode() == null ? "" : request.getCode();
+        }
+        return findBase(request.getBaseSubmissionId(), request.getOwner())
+            .map(base -> LineDiff.apply(base.getCode(), request.getDiff()))
+            .orElseThrow(() -> new IllegalArgumentException("Base submission not found: " + request.getBaseSubmissionId()));
+    }
+
+    /**
+     * Plan an incremental review of {@code code} against {@code baseSubmissionId} (the request's
+     * base, or a near-duplicate found for a request that names none), or empty when a full
+     * review should be done (no usable base review, too many changes, ...).
+     */
+    public Optional<Plan> plan(ReviewRequest request, String code, Long baseSubmissionId) {
+        Optional<CodeSubmission> base = findBase(baseSubmissionId, request.getOwner());
+        if (base.isEmpty()) {
+            log.debug("Base submission {} not found, doing a full review", baseSubmissionId);
+            return Optional.empty();
+        }
+
+        ReviewResponse baseReview;
+        try {
+            baseReview = objectMapper.readValue(base.get().getAiFeedback(), ReviewResponse.class);
+        } catch (Exception e) {
+            log.debug("Stored review of base submission {} is unreadable, doing a full review", base.get().getId());
+            return Optional.empty();
+        }
+        if (ReviewFinding.SOURCE_LOCAL.equals(baseReview.getSource())) {
+            // A rule-based fallback review has no model findings to carry over
+            return Optional.empty();
+        }
+
+        String[] baseLines = LineDiff.lines(base.get().getCode());
+        String[] newLines = LineDiff.lines(code);
+        List<Edit> edits = LineDiff.compute(baseLines, newLines, maxEdits);
+        if (edits == null) {
+            return Optional.empty();
+        }
+
+        int changed = 0;
+        for (Edit edit : edits) {
+            changed += edit.size();
+        }
+        if (changed > maxChangedRatio * Math.max(1, newLines.length)) {
+            return Optional.empty();
+        }
+
+        // The client's diff applies to the base it named, not to a near-duplicate
+        String diff = request.getDiff() != null && request.getCode() == null
+                && baseSubmissionId.equals(request.getBaseSubmissionId())
+            ? request.getDiff()
+            : LineDiff.unified(baseLines, newLines, edits, contextLines);
+        return Optional.of(new Plan(base.get().getId(), diff, changed, Math.max(0, newLines.length - changed),
+            carryOver(baseReview, edits, code)));
+    }
+
+    /**
+     * Keep base findings that do not point into a changed region: findings that reference a
+     * changed base line, or quote code that no longer exists, are dropped. Local rule findings
+     * are dropped as well, since they are recomputed for the whole new file.
+     */
+    private ReviewResponse carryOver(ReviewResponse baseReview, List<Edit> edits, String code) {
+        ReviewResponse carried = new ReviewResponse();
+        carried.setScore(baseReview.getScore());
+        carried.setSummary(baseReview.getSummary());
+        carried.setComments(baseReview.getComments());
+        carried.setIssues(filter(withoutLocalFindings(baseReview), edits, code));
+        carried.setSuggestions(filter(baseReview.getSuggestions(), edits, code));
+        carried.setBestPractices(baseReview.getBestPractices());
+        return carried;
+    }
+
+    private static String[] withoutLocalFindings(ReviewResponse review) {
+        if (review.getIssues() == null || review.getFindings() == null) {
+            return review.getIssues();
+        }
+        Set<String> local = review.getFindings().stream()
+            .filter(finding -> ReviewFinding.SOURCE_LOCAL.equals(finding.getSource()))
+            .map(ReviewFinding::getMessage)
+            .collect(Collectors.toSet());
+        return Arrays.stream(review.getIssues()).filter(issue -> !local.contains(issue)).toArray(String[]::new);
+    }
+
+    private static String[] filter(String[] findings, List<Edit> edits, String code) {
+        if (findings == null) {
+            return new String[0];
+        }
+        List<String> kept = new ArrayList<>(findings.length);
+        for (String finding : findings) {
+            if (finding != null && !touchesChange(finding, edits, code)) {
+                kept.add(finding);
+            }
+        }
+        return kept.toArray(new String[0]);
+    }
+
+    private static boolean touchesChange(String finding, List<Edit> edits, String code) {
+        Matcher lines = LINE_REFERENCE.matcher(finding);
+        while (lines.find()) {
+            int line = Integer.parseInt(lines.group(1)) - 1;
+            for (Edit edit : edits) {
+                if (line >= edit.baseStart() && line < Math.max(edit.baseEnd(), edit.baseStart() + 1)) {
+                    return true;
+                }
+            }
+        }
+        Matcher snippets = CODE_REFERENCE.matcher(finding);
+        while (snippets.find()) {
+            if (!code.contains(snippets.group(1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param baseSubmissionId the submission reviewed before
+     * @param diff             unified diff to review
+     * @param changedLines     number of changed lines (weight of the new review)
+     * @param unchangedLines   number of untouched lines (weight of the carried-over review)
+     * @param carriedOver      base findings that still apply to untouched regions
+     */
+    public record Plan(Long baseSubmissionId, String diff, int changedLines, int unchangedLines,
+                       ReviewResponse carriedOver) {
+
+        public boolean hasChanges() {
+            return changedLines > 0;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.yourorg.aicode.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Line-based diff utilities: Myers shortest edit script, unified-diff rendering and
+ * applying a unified diff to a base text.
+ */
+final class LineDiff {
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+
+    private LineDiff() {
+    }
+
+    /**
+     * A changed region: base lines {@code [baseStart, baseEnd)} were replaced by new lines
+     * {@code [newStart, newEnd)} (0-based).
+     */
+    record Edit(int baseStart, int baseEnd, int newStart, int newEnd) {
+        int size() {
+            return Math.max(baseEnd - baseStart, newEnd - newStart);
+        }
+    }
+
+    static String[] lines(String text) {
+        return text == null || text.isEmpty() ? new String[0] : text.split("\n", -1);
+    }
+
+    /**
+     * Changed regions between {@code a} and {@code b}, or {@code null} when more than
+     * {@code maxEdits} line insertions/deletions would be needed.
+     */
+    static List<Edit> compute(String[] a, String[] b, int maxEdits) {
+        // Trim the common prefix and suffix first; typical edits leave most of the file alone
+        int prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix].equals(b[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+            && a[a.length - 1 - suffix].equals(b[b.length - 1 - suffix])) {
+            suffix++;
+        }
+        int n = a.length - prefix - suffix;
+        int m = b.length - prefix - suffix;
+
+        boolean[] keptA = new boolean[n];
+        boolean[] keptB = new boolean[m];
+        if (n > 0 && m > 0 && !myers(a, b, prefix, n, m, keptA, keptB, maxEdits)) {
+            return null;
+        } else if (n + m > maxEdits && (n == 0 || m == 0)) {
+            return null;
+        }
+
+        List<Edit> edits = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            if (i < n && j < m && keptA[i] && keptB[j]) {
+                i++;
+                j++;
+                continue;
+            }
+            int si = i;
+            int sj = j;
+            while (i < n && !keptA[i]) {
+                i++;
+            }
+            while (j < m && !keptB[j]) {
+                j++;
+            }
+            edits.add(new Edit(prefix + si, prefix + i, prefix + sj, prefix + j));
+        }
+        return edits;
+    }
+
+    /**
+     * Myers O((N+M)D) diff over a[off, off+n) and b[off, off+m); marks matched lines. Gives up
+     * after {@code maxEdits} edits, so work and memory stay bounded by that limit, not the input:
+     * step d keeps only the d+1 diagonals it reached (O(maxEdits^2) ints for the backtrack).
+     */
+    private static boolean myers(String[] a, String[] b, int off, int n, int m,
+                                 boolean[] keptA, boolean[] keptB, int maxEdits) {
+        int limit = Math.min(n + m, maxEdits);
+        // Diagonals k in [-limit - 1, limit + 1]
+        int offset = limit + 1;
+        int[] v = new int[2 * limit + 3];
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= limit; d++) {
+            // Furthest x on diagonals -d, -d + 2, ..., d after this step
+            int[] reached = new int[d + 1];
+            trace.add(reached);
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                    ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[off + x].equals(b[off + y])) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                reached[(k + d) / 2] = x;
+                if (x >= n && y >= m) {
+                    backtrack(trace, n, m, keptA, keptB);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void backtrack(List<int[]> trace, int n, int m, boolean[] keptA, boolean[] keptB) {
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] previous = trace.get(d - 1);
+            int k = x - y;
+            // Same choice as the forward pass, on the diagonals step d - 1 reached
+            boolean down = k == -d || (k != d && previous[(k - 1 + d - 1) / 2] < previous[(k + 1 + d - 1) / 2]);
+            int prevK = down ? k + 1 : k - 1;
+            int prevX = previous[(prevK + d - 1) / 2];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                keptA[x - 1] = true;
+                keptB[y - 1] = true;
+                x--;
+                y--;
+            }
+            x = prevX;
+            y = prevY;
+        }
+        // Step 0 is the common run from the start
+        while (x > 0 && y > 0) {
+            keptA[x - 1] = true;
+            keptB[y - 1] = true;
+            x--;
+            y--;
+        }
+    }
+
+    /**
+     * Render the edits as a unified diff with {@code context} lines around each change.
+     */
+    static String unified(String[] a, String[] b, List<Edit> edits, int context) {
+        StringBuilder out = new StringBuilder();
+        int e = 0;
+        while (e < edits.size()) {
+            // Group edits whose context windows touch into one hunk
+            int first = e;
+            int last = e;
+            while (last + 1 < edits.size()
+                && edits.get(last + 1).baseStart() - edits.get(last).baseEnd() <= 2 * context) {
+                last++;
+            }
+            Edit start = edits.get(first);
+            Edit end = edits.get(last);
+            int baseFrom = Math.max(0, start.baseStart() - context);
+            int baseTo = Math.min(a.length, end.baseEnd() + context);
+            int newFrom = Math.max(0, start.newStart() - (start.baseStart() - baseFrom));
+            int newTo = Math.min(b.length, end.newEnd() + (baseTo - end.baseEnd()));
+
+            // Empty ranges name the line before the change, as in GNU diff
+            out.append("@@ -").append(baseTo == baseFrom ? baseFrom : baseFrom + 1).append(',').append(baseTo - baseFrom)
+                .append(" +").append(newTo == newFrom ? newFrom : newFrom + 1).append(',').append(newTo - newFrom).append(" @@\n");
+            int i = baseFrom;
+            for (int k = first; k <= last; k++) {
+                Edit edit = edits.get(k);
+                for (; i < edit.baseStart(); i++) {
+                    out.append(' ').append(a[i]).append('\n');
+                }
+                for (int r = edit.baseStart(); r < edit.baseEnd(); r++) {
+                    out.append('-').append(a[r]).append('\n');
+                }
+                for (int r = edit.newStart(); r < edit.newEnd(); r++) {
+                    out.append('+').append(b[r]).append('\n');
+                }
+                i = edit.baseEnd();
+            }
+            for (; i < baseTo; i++) {
+                out.append(' ').append(a[i]).append('\n');
+            }
+            e = last + 1;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Apply a unified diff to {@code base}. Context and removed lines must match exactly.
+     *
+     * @throws IllegalArgumentException when the diff does not apply
+     */
+    static String apply(String base, String diff) {
+        String[] baseLines = lines(base);
+        List<String> result = new ArrayList<>(baseLines.length);
+        int cursor = 0;
+        String[] diffLines = diff.split("\n", -1);
+        int d = 0;
+        while (d < diffLines.length) {
+            Matcher header = HUNK_HEADER.matcher(diffLines[d]);
+            if (!header.matches()) {
+                d++;
+                continue;
+            }
+            int hunkStart = Integer.parseInt(header.group(1)) - 1;
+            // An empty base range names the line before the insertion ("-0,0" = start of file)
+            if (header.group(2) != null && Integer.parseInt(header.group(2)) == 0) {
+                hunkStart++;
+            }
+            if (hunkStart < cursor || hunkStart > baseLines.length) {
+                throw new IllegalArgumentException("Hunk out of order at diff line " + (d + 1));
+            }
+            while (cursor < hunkStart) {
+                result.add(baseLines[cursor++]);
+            }
+            d++;
+            while (d < diffLines.length && !diffLines[d].startsWith("@@")) {
+                String line = diffLines[d++];
+                if (line.isEmpty() && d == diffLines.length) {
+                    break;
+                }
+                char op = line.isEmpty() ? ' ' : line.charAt(0);
+                String text = line.isEmpty() ? "" : line.substring(1);
+                switch (op) {
+                    case ' ', '-' -> {
+                        if (cursor >= baseLines.length || !baseLines[cursor].equals(text)) {
+                            throw new IllegalArgumentException("Diff does not apply at base line " + (cursor + 1));
+                        }
+                        if (op == ' ') {
+                            result.add(text);
+                        }
+                        cursor++;
+                    }
+                    case '+' -> result.add(text);
+                    default -> {
+                        // "\ No newline at end of file" and file headers
+                    }
+                }
+            }
+        }
+        while (cursor < baseLines.length) {
+            result.add(baseLines[cursor++]);
+        }
+        return String.join("\n", result);
+    }
+}
@@ -0,0 +1,32 @@
+package com.yourorg.aicode.service;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A literal pattern checked by the {@link LocalRuleEngine}.
+ *
+ * @param id         stable identifier, e.g. {@code java.system-out}
+ * @param pattern    literal text to look for; must not contain line breaks
+ * @param message    finding reported for each occurrence
+ * @param suggestion optional fix hint, may be {@code null}
+ * @param penalty    points deducted from the heuristic score when the rule fires
+ * @param wordStart  only match when the pattern is not preceded by an identifier character
+ * @param languages  lower-case languages the rule applies to; empty for all languages
+ */
+public record LocalRule(String id, String pattern, String message, String suggestion, int penalty,
+                        boolean wordStart, Set<String> languages) {
+
+    public LocalRule {
+        if (pattern == null || pattern.isEmpty() || pattern.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Rule " + id + " needs a non-empty single-line pattern");
+        }
+        languages = languages == null ? Set.of()
+            : languages.stream().map(l -> l.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean appliesTo(String language) {
+        return languages.isEmpty() || languages.contains(language);
+    }
+}
@@ -0,0 +1,187 @@
+package com.yourorg.aicode.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Local first-pass reviewer: all rules of a language (from every {@link LocalRuleProvider}
+ * bean) are compiled into one {@link RuleAutomaton} and the code is scanned once, reporting
+ * findings with line numbers. Files above {@code review.rules.parallel-threshold} characters
+ * are scanned in parallel segments cut at line breaks.
+ */
+@Component
+public class LocalRuleEngine {
+
+    private static final Map<String, String> LANGUAGE_ALIASES = Map.of(
+        "js", "javascript",
+        "ts", "typescript",
+        "py", "python",
+        "kt", "kotlin",
+        "rb", "ruby",
+        "c#", "csharp",
+        "cs", "csharp",
+        "c++", "cpp");
+
+    private static final String ANY_LANGUAGE = "*";
+    private static final String GENERIC = "";
+
+    private final List<LocalRule> rules;
+    private final Set<String> languages;
+    private final Map<String, CompiledRules> compiled = new ConcurrentHashMap<>();
+
+    private final int parallelThreshold;
+    private final int maxFindingsPerRule;
+
+    public LocalRuleEngine(List<LocalRuleProvider> providers,
+                           @Value("${review.rules.parallel-threshold:1000000}") int parallelThreshold,
+                           @Value("${review.rules.max-findings-per-rule:10}") int maxFindingsPerRule) {
+        List<LocalRule> all = new ArrayList<>();
+        providers.forEach(provider -> all.addAll(provider.rules()));
+        this.rules = List.copyOf(all);
+        this.languages = all.stream().flatMap(rule -> rule.languages().stream()).collect(Collectors.toUnmodifiableSet());
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+        this.maxFindingsPerRule = Math.max(1, maxFindingsPerRule);
+    }
+
+    /**
+     * Scan {@code code} with the rules for {@code language}. Findings are ordered by line and
+     * capped at {@code review.rules.max-findings-per-rule} per rule; {@link Finding#occurrences()}
+     * still counts them all.
+     */
+    public List<Finding> analyze(String code, String language) {
+        if (code == null || code.isEmpty()) {
+            return List.of();
+        }
+        CompiledRules compiledRules = compiled.computeIfAbsent(normalize(language), this::compile);
+        if (compiledRules.rules.length == 0) {
+            return List.of();
+        }
+
+        int[] occurrences = new int[compiledRules.rules.length];
+        List<Hit> hits;
+        if (code.length() < parallelThreshold) {
+            hits = new ArrayList<>();
+            scan(compiledRules, code, 0, code.length(), occurrences, hits);
+        } else {
+            hits = scanParallel(compiledRules, code, occurrences);
+        }
+
+        // Cap per rule after counting, so the cap does not depend on segment boundaries
+        hits.sort(Comparator.comparingInt(Hit::line));
+        int[] kept = new int[compiledRules.rules.length];
+        List<Finding> findings = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            if (kept[hit.rule()]++ < maxFindingsPerRule) {
+                LocalRule rule = compiledRules.rules[hit.rule()];
+                findings.add(new Finding(rule.id(), rule.pattern(), hit.line(), rule.message(), rule.suggestion(),
+                    rule.penalty(), occurrences[hit.rule()]));
+            }
+        }
+        return findings;
+    }
+
+    private List<Hit> scanParallel(CompiledRules compiledRules, String code, int[] occurrences) {
+        int segments = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), code.length() / (parallelThreshold / 4 + 1)));
+        int[] bounds = new int[segments + 1];
+        bounds[segments] = code.length();
+        for (int s = 1; s < segments; s++) {
+            // Cut after a line break; patterns never span lines so no match is lost
+            int cut = code.indexOf('\n', Math.max(bounds[s - 1], (int) ((long) code.length() * s / segments)));
+            bounds[s] = cut < 0 ? code.length() : cut + 1;
+        }
+
+        int[][] segmentOccurrences = new int[segments][compiledRules.rules.length];
+        List<List<Hit>> segmentHits = new ArrayList<>(segments);
+        int[] segmentLines = new int[segments];
+        for (int s = 0; s < segments; s++) {
+            segmentHits.add(new ArrayList<>());
+        }
+        IntStream.range(0, segments).parallel().forEach(s -> segmentLines[s] =
+            scan(compiledRules, code, bounds[s], bounds[s + 1], segmentOccurrences[s], segmentHits.get(s)));
+
+        List<Hit> hits = new ArrayList<>();
+        int lineOffset = 0;
+        for (int s = 0; s < segments; s++) {
+            for (Hit hit : segmentHits.get(s)) {
+                hits.add(new Hit(hit.rule(), hit.line() + lineOffset));
+            }
+            for (int r = 0; r < occurrences.length; r++) {
+                occurrences[r] += segmentOccurrences[s][r];
+            }
+            lineOffset += segmentLines[s];
+        }
+        return hits;
+    }
+
+    /**
+     * @return number of line breaks in {@code code[from, to)}
+     */
+    private int scan(CompiledRules compiledRules, String code, int from, int to, int[] occurrences, List<Hit> hits) {
+        RuleAutomaton automaton = compiledRules.automaton;
+        LocalRule[] rules = compiledRules.rules;
+        return automaton.scan(code, from, to, (pattern, end, line) -> {
+            int start = end - automaton.patternLength(pattern);
+            if (rules[pattern].wordStart() && start > 0 && Character.isJavaIdentifierPart(code.charAt(start - 1))) {
+                return;
+            }
+            // Hits beyond the cap are only counted
+            if (occurrences[pattern]++ < maxFindingsPerRule) {
+                hits.add(new Hit(pattern, line + 1));
+            }
+        });
+    }
+
+    private CompiledRules compile(String language) {
+        List<LocalRule> applicable = ANY_LANGUAGE.equals(language)
+            ? rules
+            : rules.stream().filter(rule -> rule.appliesTo(language)).toList();
+        return new CompiledRules(applicable);
+    }
+
+    /**
+     * Canonical language key. Missing languages get every rule (as the old contains() heuristic
+     * did); languages no rule is specific to share the generic rules, which keeps the automaton
+     * cache bounded.
+     */
+    private String normalize(String language) {
+        if (language == null || language.isBlank()) {
+            return ANY_LANGUAGE;
+        }
+        String key = language.trim().toLowerCase(Locale.ROOT);
+        key = LANGUAGE_ALIASES.getOrDefault(key, key);
+        return languages.contains(key) ? key : GENERIC;
+    }
+
+    private record Hit(int rule, int line) {
+    }
+
+    private static final class CompiledRules {
+        private final LocalRule[] rules;
+        private final RuleAutomaton automaton;
+
+        private CompiledRules(List<LocalRule> rules) {
+            this.rules = rules.toArray(new LocalRule[0]);
+            this.automaton = new RuleAutomaton(rules.stream().map(LocalRule::pattern).toList());
+        }
+    }
+
+    /**
+     * One rule hit.
+     *
+     * @param line        1-based line number
+     * @param occurrences total number of hits of this rule in the file
+     */
+    public record Finding(String ruleId, String pattern, int line, String message, String suggestion, int penalty,
+                          int occurrences) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.yourorg.aicode.service;
+
+import java.util.List;
+
+/**
+ * Source of rules for the {@link LocalRuleEngine}. Every bean implementing this interface
+ * contributes its rules, so teams can plug in their own rule sets.
+ */
+public interface LocalRuleProvider {
+
+    List<LocalRule> rules();
+}
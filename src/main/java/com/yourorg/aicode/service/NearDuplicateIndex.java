@@ -0,0 +1,269 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.CodeBlob;
+import com.yourorg.aicode.model.CodeSubmission;
+import com.yourorg.aicode.model.dto.ReviewFinding;
+import com.yourorg.aicode.model.dto.ReviewResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory LSH index over the SimHash fingerprints ({@link CodeFingerprint}) of submissions
+ * with a model review, so that a near-duplicate of earlier code can be reviewed against it
+ * instead of from scratch. Matches are limited to the same owner and language.
+ * <p>
+ * With a maximum Hamming distance of {@code k}, the 64 bits are cut into {@code k + 1} bands:
+ * two fingerprints within the distance agree on at least one whole band, so only the entries
+ * sharing a band value with the query are compared. Entries are kept in primitive arrays with
+ * one bucket chain per band, a few dozen bytes per submission. The index is loaded from
+ * {@code code_submissions} at startup; ids of submissions dropped by retention stay until the
+ * next start and simply find no base.
+ */
+@Service
+public class NearDuplicateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(NearDuplicateIndex.class);
+
+    // More bands means shorter band values and longer bucket chains; 8 bands of 8 bits is the limit
+    static final int MAX_DISTANCE_LIMIT = 7;
+    private static final int MAX_TABLE_BITS = 20;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int LOAD_FETCH_SIZE = 10_000;
+    private static final int BACKFILL_BATCH = 500;
+
+    // Fallback reviews have no model findings to carry over and are never used as a base
+    private static final String REUSABLE =
+        "jsonb_typeof(ai_feedback) = 'object' AND ai_feedback ->> 'source' IS DISTINCT FROM 'local'";
+
+    // Fingerprint 0: code without tokens, or a blob that was missing when it was backfilled
+    private static final String LOAD =
+        "SELECT id, owner, language, code_simhash FROM code_submissions "
+        + "WHERE code_simhash <> 0 AND owner IS NOT NULL AND " + REUSABLE + " ORDER BY id DESC LIMIT ?";
+
+    private static final String BACKFILL =
+        "SELECT s.id, s.created_at, s.owner, s.language, " + REUSABLE.replace("ai_feedback", "s.ai_feedback")
+        + " AS reusable, b.compression, b.data, b.original_length "
+        + "FROM code_submissions s LEFT JOIN code_blobs b ON b.hash = s.code_hash "
+        + "WHERE s.code_simhash IS NULL AND s.id < ? ORDER BY s.id DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate loadJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int maxDistance;
+    private final int maxEntries;
+
+    // Band b is the bandWidths[b] bits starting at bandShifts[b]
+    private final int[] bandShifts;
+    private final int[] bandWidths;
+
+    // Guarded by "this": entry i is fingerprints[i], submissionIds[i], scopes[i]; heads[b] maps a
+    // bucket of band b to its newest entry and next[b][i] links to the previous one (-1 ends)
+    private long[] fingerprints = new long[INITIAL_CAPACITY];
+    private long[] submissionIds = new long[INITIAL_CAPACITY];
+    private long[] scopes = new long[INITIAL_CAPACITY];
+    private final int[][] heads;
+    private final int[][] next;
+    private int size;
+    private boolean full;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer lookupLatency;
+
+    public NearDuplicateIndex(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${review.near-duplicate.enabled:true}") boolean enabled,
+                              @Value("${review.near-duplicate.min-similarity:0.95}") double minSimilarity,
+                              @Value("${review.near-duplicate.max-entries:2000000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loadJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.loadJdbcTemplate.setFetchSize(LOAD_FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxDistance = Math.max(0, Math.min(MAX_DISTANCE_LIMIT, (int) Math.floor((1 - minSimilarity) * Long.SIZE + 1e-9)));
+        this.maxEntries = Math.max(1, maxEntries);
+
+        int bands = maxDistance + 1;
+        this.bandShifts = new int[bands];
+        this.bandWidths = new int[bands];
+        this.heads = new int[bands][];
+        this.next = new int[bands][INITIAL_CAPACITY];
+        int shift = 0;
+        for (int b = 0; b < bands; b++) {
+            bandWidths[b] = Long.SIZE / bands + (b < Long.SIZE % bands ? 1 : 0);
+            bandShifts[b] = shift;
+            shift += bandWidths[b];
+            heads[b] = new int[1 << Math.min(bandWidths[b], MAX_TABLE_BITS)];
+            Arrays.fill(heads[b], -1);
+        }
+
+        this.hits = meterRegistry.counter("review.near-duplicate.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("review.near-duplicate.lookups", "result", "miss");
+        this.lookupLatency = Timer.builder("review.near-duplicate.lookup.latency")
+            .description("Time to find the nearest earlier submission of a new one")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        meterRegistry.gauge("review.near-duplicate.size", this, NearDuplicateIndex::size);
+    }
+
+    /**
+     * Index a stored submission, unless its review came from the local fallback.
+     */
+    public void add(CodeSubmission submission, ReviewResponse review) {
+        if (!enabled || ReviewFinding.SOURCE_LOCAL.equals(review.getSource()) || submission.getId() == null
+                || submission.getOwner() == null || submission.getCodeSimhash() == null || submission.getCodeSimhash() == 0) {
+            return;
+        }
+        add(submission.getId(), scope(submission.getOwner(), submission.getLanguage()), submission.getCodeSimhash());
+    }
+
+    /**
+     * The most similar earlier submission (the newest one on a tie) of the same owner and
+     * language within the similarity threshold.
+     */
+    public Optional<Long> find(CodeSubmission submission) {
+        if (!enabled || submission.getOwner() == null || submission.getCodeSimhash() == null
+                || submission.getCodeSimhash() == 0) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        long fingerprint = submission.getCodeSimhash();
+        long scope = scope(submission.getOwner(), submission.getLanguage());
+        long match = -1;
+        int matchDistance = maxDistance + 1;
+        synchronized (this) {
+            for (int b = 0; b < heads.length; b++) {
+                for (int i = heads[b][bucket(b, fingerprint)]; i >= 0; i = next[b][i]) {
+                    if (scopes[i] != scope) {
+                        continue;
+                    }
+                    int distance = Long.bitCount(fingerprint ^ fingerprints[i]);
+                    if (distance < matchDistance || (distance == matchDistance && submissionIds[i] > match)) {
+                        match = submissionIds[i];
+                        matchDistance = distance;
+                    }
+                }
+            }
+        }
+        lookupLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (match < 0 || (submission.getId() != null && match == submission.getId())) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        log.debug("Submission {} is {} bits away from fingerprint of submission {}", submission.getId(), matchDistance, match);
+        return Optional.of(match);
+    }
+
+    /**
+     * Load the fingerprints of stored submissions, newest first, and compute the missing ones
+     * of submissions stored before fingerprints were recorded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Streams with the fetch size only inside a transaction
+        RowCallbackHandler addRow = rs -> add(rs.getLong("id"), scope(rs.getString("owner"), rs.getString("language")),
+            rs.getLong("code_simhash"));
+        transactionTemplate.executeWithoutResult(status -> loadJdbcTemplate.query(LOAD, addRow, maxEntries));
+        int backfilled = backfill();
+        log.info("Loaded {} submission fingerprints in {} ms ({} computed)", size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), backfilled);
+    }
+
+    private int backfill() {
+        int backfilled = 0;
+        long before = Long.MAX_VALUE;
+        while (true) {
+            List<Object[]> updates = new ArrayList<>(BACKFILL_BATCH);
+            long[] last = {before};
+            jdbcTemplate.query(BACKFILL, (RowCallbackHandler) rs -> {
+                long id = rs.getLong("id");
+                byte[] data = rs.getBytes("data");
+                // A missing blob is marked with fingerprint 0 so it is not read again on every start
+                long fingerprint = data == null ? 0
+                    : CodeFingerprint.simhash(CodeBlob.decode(rs.getString("compression"), data, rs.getInt("original_length")),
+                        rs.getString("language"));
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                updates.add(new Object[]{fingerprint, id, createdAt});
+                if (fingerprint != 0 && rs.getBoolean("reusable") && rs.getString("owner") != null) {
+                    add(id, scope(rs.getString("owner"), rs.getString("language")), fingerprint);
+                }
+                last[0] = id;
+            }, before, BACKFILL_BATCH);
+            if (updates.isEmpty()) {
+                return backfilled;
+            }
+            jdbcTemplate.batchUpdate("UPDATE code_submissions SET code_simhash = ? WHERE id = ? AND created_at = ?", updates);
+            backfilled += updates.size();
+            before = last[0];
+        }
+    }
+
+    private synchronized void add(long submissionId, long scope, long fingerprint) {
+        if (size == maxEntries) {
+            if (!full) {
+                full = true;
+                log.warn("Near-duplicate index is full ({} entries); newer submissions are not indexed until restart", size);
+            }
+            return;
+        }
+        if (size == fingerprints.length) {
+            int capacity = Math.min(maxEntries, fingerprints.length + (fingerprints.length >> 1));
+            fingerprints = Arrays.copyOf(fingerprints, capacity);
+            submissionIds = Arrays.copyOf(submissionIds, capacity);
+            scopes = Arrays.copyOf(scopes, capacity);
+            for (int b = 0; b < next.length; b++) {
+                next[b] = Arrays.copyOf(next[b], capacity);
+            }
+        }
+        int entry = size++;
+        fingerprints[entry] = fingerprint;
+        submissionIds[entry] = submissionId;
+        scopes[entry] = scope;
+        for (int b = 0; b < heads.length; b++) {
+            int bucket = bucket(b, fingerprint);
+            next[b][entry] = heads[b][bucket];
+            heads[b][bucket] = entry;
+        }
+    }
+
+    private int bucket(int band, long fingerprint) {
+        int width = bandWidths[band];
+        long value = (fingerprint >>> bandShifts[band]) & (width == Long.SIZE ? -1L : (1L << width) - 1);
+        return width <= MAX_TABLE_BITS ? (int) value : (int) ((value * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - MAX_TABLE_BITS));
+    }
+
+    private static long scope(String owner, String language) {
+        return CodeFingerprint.hash(owner + '\u0000' + (language == null ? "" : language.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,284 @@
+package com.yourorg.aicode.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Shrinks code before it is put into a prompt: drops license headers, blank lines, trailing
+ * whitespace and (for languages where it carries no meaning) indentation, and optionally
+ * comments and the tail of very long string literals. Lines can be prefixed with their number
+ * in the original file so the model's line references stay valid.
+ */
+@Component
+public class PromptCompactor {
+
+    private static final Set<String> C_STYLE = Set.of("java", "kotlin", "scala", "groovy", "javascript", "js",
+        "typescript", "ts", "c", "cpp", "c++", "csharp", "c#", "cs", "go", "rust", "swift", "php", "dart");
+    private static final Set<String> HASH_STYLE = Set.of("python", "py", "ruby", "rb", "shell", "bash", "sh",
+        "perl", "r", "yaml", "yml");
+    // Languages where ' does not always start a literal (Rust lifetimes)
+    private static final Set<String> NO_CHAR_LITERALS = Set.of("rust");
+    private static final Set<String> TRIPLE_QUOTES = Set.of("python", "py", "kotlin", "scala", "groovy", "java");
+
+    private static final Pattern LICENSE = Pattern.compile("(?i)copyright|licen[cs]e|spdx-license-identifier");
+
+    private final boolean enabled;
+    private final boolean stripComments;
+    private final int maxStringLiteral;
+    private final boolean lineNumbers;
+    private final int maxInputTokens;
+
+    private final DistributionSummary promptTokens;
+    private final Counter tokensSaved;
+
+    public PromptCompactor(MeterRegistry meterRegistry,
+                           @Value("${review.prompt.compact:true}") boolean enabled,
+                           @Value("${review.prompt.strip-comments:false}") boolean stripComments,
+                           @Value("${review.prompt.max-string-literal:0}") int maxStringLiteral,
+                           @Value("${review.prompt.line-numbers:true}") boolean lineNumbers,
+                           @Value("${review.prompt.max-input-tokens:0}") int maxInputTokens) {
+        this.enabled = enabled;
+        this.stripComments = stripComments;
+        this.maxStringLiteral = maxStringLiteral;
+        this.lineNumbers = lineNumbers;
+        this.maxInputTokens = maxInputTokens;
+        this.promptTokens = DistributionSummary.builder("review.prompt.tokens")
+            .description("Estimated input tokens per provider prompt")
+            .baseUnit("tokens")
+            .register(meterRegistry);
+        this.tokensSaved = meterRegistry.counter("review.prompt.tokens.saved");
+    }
+
+    /**
+     * Whether compacted code carries its original line numbers (the prompt should say so).
+     */
+    public boolean numbersLines() {
+        return enabled && lineNumbers;
+    }
+
+    /**
+     * The settings that shape compacted prompts, part of the review cache key so that reviews
+     * made under another configuration are not served.
+     */
+    public String settingsKey() {
+        return enabled
+            ? "compact:strip-comments=" + stripComments + ",max-string-literal=" + maxStringLiteral
+                + ",line-numbers=" + lineNumbers
+            : "raw";
+    }
+
+    /**
+     * Compact {@code code} whose first line is line {@code firstLine} of the original file.
+     */
+    public String compact(String code, String language, int firstLine) {
+        if (!enabled || code == null || code.isEmpty()) {
+            return code;
+        }
+        String lang = language == null ? "" : language.trim().toLowerCase(Locale.ROOT);
+        String lexed = C_STYLE.contains(lang) || HASH_STYLE.contains(lang) ? stripLexically(code, lang) : code;
+        // Indentation is only dropped where braces carry the structure
+        boolean keepIndent = !C_STYLE.contains(lang);
+
+        StringBuilder out = new StringBuilder(lexed.length());
+        int line = firstLine;
+        int start = 0;
+        while (start <= lexed.length()) {
+            int end = lexed.indexOf('\n', start);
+            if (end < 0) {
+                end = lexed.length();
+            }
+            int from = start;
+            int to = end;
+            while (to > from && Character.isWhitespace(lexed.charAt(to - 1))) to--;
+            if (!keepIndent) {
+                while (from < to && Character.isWhitespace(lexed.charAt(from))) from++;
+            }
+            if (to > from) {
+                if (lineNumbers) {
+                    out.append(line).append("| ");
+                }
+                out.append(lexed, from, to).append('\n');
+            }
+            line++;
+            start = end + 1;
+        }
+
+        int saved = estimateTokens(code) - estimateTokens(out);
+        if (saved > 0) {
+            tokensSaved.increment(saved);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Estimate the prompt's input tokens and refuse it locally when it exceeds
+     * {@code review.prompt.max-input-tokens}, before anything is sent.
+     */
+    public int checkBudget(String prompt) throws IOException {
+        int tokens = estimateTokens(prompt);
+        promptTokens.record(tokens);
+        if (maxInputTokens > 0 && tokens > maxInputTokens) {
+            throw new IOException("Prompt of ~" + tokens + " tokens exceeds review.prompt.max-input-tokens=" + maxInputTokens);
+        }
+        return tokens;
+    }
+
+    /**
+     * Token estimate closer to BPE tokenizers than length / 4 for code: a word or number costs
+     * one token per four characters, every other symbol one token, runs of whitespace other than
+     * a single space one token.
+     */
+    public static int estimateTokens(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int tokens = 0;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            char c = text.charAt(i);
+            int runStart = i;
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                while (i < n && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_')) i++;
+                tokens += (i - runStart + 3) / 4;
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(text.charAt(i))) i++;
+                // A single space is merged into the following word
+                if (i - runStart > 1 || c != ' ') {
+                    tokens++;
+                }
+            } else {
+                i++;
+                tokens++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Single pass over {@code code} that removes the license header, comments (if configured)
+     * and the tail of long string literals (if configured). Line breaks are preserved so line
+     * numbers do not shift.
+     */
+    private String stripLexically(String code, String lang) {
+        boolean cStyle = C_STYLE.contains(lang);
+        boolean charLiterals = !NO_CHAR_LITERALS.contains(lang);
+        boolean tripleQuotes = TRIPLE_QUOTES.contains(lang);
+        StringBuilder out = new StringBuilder(code.length());
+        boolean sawCode = false;
+        int n = code.length();
+        int i = 0;
+        while (i < n) {
+            char c = code.charAt(i);
+            int commentEnd = commentEnd(code, i, cStyle);
+            if (commentEnd > i) {
+                boolean header = false;
+                if (!sawCode) {
+                    // A header made of line comments spans all consecutive comment lines
+                    commentEnd = headerEnd(code, commentEnd, cStyle);
+                    header = LICENSE.matcher(code.subSequence(i, commentEnd)).find();
+                }
+                if (header || stripComments) {
+                    appendLineBreaks(out, code, i, commentEnd);
+                } else {
+                    out.append(code, i, commentEnd);
+                }
+                sawCode = sawCode || !header;
+                i = commentEnd;
+            } else if (c == '"' || c == '`' || (c == '\'' && charLiterals)) {
+                int literalEnd = literalEnd(code, i, tripleQuotes);
+                appendLiteral(out, code, i, literalEnd);
+                sawCode = true;
+                i = literalEnd;
+            } else {
+                out.append(c);
+                sawCode = sawCode || !Character.isWhitespace(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return end of the comment starting at {@code i}, or {@code i} if none starts there
+     */
+    private static int commentEnd(String code, int i, boolean cStyle) {
+        boolean hashComment = !cStyle && code.charAt(i) == '#' && (i == 0 || Character.isWhitespace(code.charAt(i - 1)));
+        if (cStyle && code.startsWith("//", i) || hashComment) {
+            int end = code.indexOf('\n', i);
+            return end < 0 ? code.length() : end;
+        }
+        if (cStyle && code.startsWith("/*", i)) {
+            int end = code.indexOf("*/", i + 2);
+            return end < 0 ? code.length() : end + 2;
+        }
+        return i;
+    }
+
+    private static int headerEnd(String code, int end, boolean cStyle) {
+        while (end < code.length()) {
+            int next = end + 1;
+            while (next < code.length() && (code.charAt(next) == ' ' || code.charAt(next) == '\t')) next++;
+            if (next >= code.length() || code.charAt(end) != '\n') {
+                return end;
+            }
+            int following = commentEnd(code, next, cStyle);
+            if (following == next) {
+                return end;
+            }
+            end = following;
+        }
+        return end;
+    }
+
+    private static int literalEnd(String code, int i, boolean tripleQuotes) {
+        char quote = code.charAt(i);
+        if (tripleQuotes && quote != '`' && code.startsWith(String.valueOf(quote).repeat(3), i)) {
+            int end = code.indexOf(String.valueOf(quote).repeat(3), i + 3);
+            return end < 0 ? code.length() : end + 3;
+        }
+        int j = i + 1;
+        while (j < code.length()) {
+            char c = code.charAt(j);
+            if (c == '\\') {
+                j += 2;
+                continue;
+            }
+            if (c == quote) {
+                return j + 1;
+            }
+            // Unterminated ordinary literal: stop at the line end
+            if (c == '\n' && quote != '`') {
+                return j;
+            }
+            j++;
+        }
+        return code.length();
+    }
+
+    private void appendLiteral(StringBuilder out, String code, int start, int end) {
+        if (maxStringLiteral <= 0 || end - start <= maxStringLiteral) {
+            out.append(code, start, end);
+            return;
+        }
+        char quote = code.charAt(start);
+        out.append(code, start, start + maxStringLiteral).append("...").append(quote);
+        appendLineBreaks(out, code, start + maxStringLiteral, end);
+    }
+
+    private static void appendLineBreaks(StringBuilder out, String code, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (code.charAt(i) == '\n') {
+                out.append('\n');
+            }
+        }
+    }
+}
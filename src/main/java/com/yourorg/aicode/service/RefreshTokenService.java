@@ -4,11 +4,14 @@ import com.yourorg.aicode.model.RefreshToken;
 import com.yourorg.aicode.model.User;
 import com.yourorg.aicode.repository.RefreshTokenRepository;
 import com.yourorg.aicode.repository.UserRepository;
+import com.yourorg.aicode.security.AccessTokenRevocations;
+import com.yourorg.aicode.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -21,23 +24,85 @@ public class RefreshTokenService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    @Autowired
+    private AccessTokenRevocations accessTokenRevocations;
+    
     @Value("${app.jwt.refresh-expiration:604800000}") // 7 days in milliseconds
     private long refreshTokenDurationMs;
     
+    // A token replaced this recently is still accepted once more, e.g. by a second browser tab
+    @Value("${app.jwt.refresh-reuse-grace:10s}")
+    private Duration reuseGrace;
+    
     @Transactional
     public RefreshToken createRefreshToken(Long userId, String ipAddress, String userAgent) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
+        return refreshTokenRepository.save(newToken(user, UUID.randomUUID().toString(), ipAddress, userAgent));
+    }
+    
+    /**
+     * Replace a refresh token with a new one of the same family, atomically: the token and its
+     * user are read in one query, the token is revoked only if it is still active, and the new
+     * token is inserted. A token that was already rotated and is presented again revokes its
+     * whole family (the user's other logins are left alone), unless it was rotated within
+     * {@code app.jwt.refresh-reuse-grace} and its family is still active: then it is a concurrent
+     * refresh that lost the race, and it gets a successor of its own. A token revoked otherwise
+     * (logout, or with its family) is only refused.
+     */
+    @Transactional(noRollbackFor = TokenReuseException.class)
+    public RefreshToken rotate(String token, String ipAddress, String userAgent) {
+        RefreshToken current = refreshTokenRepository.findWithUserByToken(token)
+            .orElseThrow(() -> new RuntimeException("Refresh token not found"));
+        
+        if (current.isExpired()) {
+            throw new RuntimeException("Refresh token expired. Please sign in again.");
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevoked() || refreshTokenRepository.rotateIfActive(current.getId(), now) == 0) {
+            // Read again: a concurrent rotation that won is not visible on the loaded entity
+            LocalDateTime rotatedAt = refreshTokenRepository.findRotatedAt(current.getId()).orElse(null);
+            if (rotatedAt == null) {
+                // E.g. a stale tab refreshing after logout; no sign that the token was stolen
+                throw new RuntimeException("Refresh token has been revoked. Please sign in again.");
+            }
+            if (lostConcurrentRotation(current, rotatedAt, now)) {
+                return refreshTokenRepository.save(newToken(current.getUser(), current.getFamilyId(), ipAddress, userAgent));
+            }
+            if (current.getFamilyId() != null) {
+                refreshTokenRepository.revokeFamily(current.getFamilyId());
+            }
+            throw new TokenReuseException("Refresh token has been revoked. Please sign in again.");
+        }
+        
+        // Tokens issued before families existed start one here
+        String familyId = current.getFamilyId() != null ? current.getFamilyId() : UUID.randomUUID().toString();
+        return refreshTokenRepository.save(newToken(current.getUser(), familyId, ipAddress, userAgent));
+    }
+    
+    private boolean lostConcurrentRotation(RefreshToken token, LocalDateTime rotatedAt, LocalDateTime now) {
+        if (token.getFamilyId() == null || reuseGrace.isZero() || rotatedAt.isBefore(now.minus(reuseGrace))) {
+            return false;
+        }
+        // A logout or a detected reuse leaves no active token in the family
+        return refreshTokenRepository.existsByFamilyIdAndRevokedFalse(token.getFamilyId());
+    }
+    
+    private RefreshToken newToken(User user, String familyId, String ipAddress, String userAgent) {
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setUser(user);
         refreshToken.setToken(UUID.randomUUID().toString());
+        refreshToken.setFamilyId(familyId);
         refreshToken.setExpiryDate(LocalDateTime.now().plusSeconds(refreshTokenDurationMs / 1000));
         refreshToken.setIpAddress(ipAddress);
         refreshToken.setUserAgent(userAgent);
         refreshToken.setRevoked(false);
-        
-        return refreshTokenRepository.save(refreshToken);
+        return refreshToken;
     }
     
     public RefreshToken verifyExpiration(RefreshToken token) {
@@ -68,10 +133,25 @@ public class RefreshTokenService {
     @Transactional
     public void revokeAllUserTokens(User user) {
         refreshTokenRepository.revokeAllUserTokens(user);
+        accessTokenRevocations.revokeAll(user.getEmail());
+        principalCache.invalidate(user.getEmail());
     }
     
     @Transactional
     public void deleteExpiredTokens() {
         refreshTokenRepository.deleteExpiredTokens(LocalDateTime.now());
     }
+    
+    /**
+     * A refresh token was presented again after it had been rotated; its family is revoked
+     * and stays so even though the refresh fails.
+     */
+    public static class TokenReuseException extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        public TokenReuseException(String message) {
+            super(message);
+        }
+    }
 }
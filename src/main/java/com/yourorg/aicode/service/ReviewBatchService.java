@@ -0,0 +1,187 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.CodeSubmission;
+import com.yourorg.aicode.model.dto.BatchReviewItem;
+import com.yourorg.aicode.model.dto.BatchReviewResponse;
+import com.yourorg.aicode.model.dto.ReviewRequest;
+import com.yourorg.aicode.service.CodeReviewService.PendingReview;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+
+/**
+ * Reviews many files in one call. Files are fanned out to the provider with a per-batch
+ * concurrency limit, each result is reported as soon as it finishes, and all submissions of
+ * the batch are persisted in a single transaction (JDBC-batched inserts).
+ */
+@Service
+public class ReviewBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewBatchService.class);
+
+    private static final Map<String, String> LANGUAGES_BY_EXTENSION = Map.ofEntries(
+        Map.entry("java", "java"),
+        Map.entry("kt", "kotlin"),
+        Map.entry("py", "python"),
+        Map.entry("js", "javascript"),
+        Map.entry("jsx", "javascript"),
+        Map.entry("ts", "typescript"),
+        Map.entry("tsx", "typescript"),
+        Map.entry("go", "go"),
+        Map.entry("rs", "rust"),
+        Map.entry("c", "c"),
+        Map.entry("h", "c"),
+        Map.entry("cpp", "cpp"),
+        Map.entry("cc", "cpp"),
+        Map.entry("hpp", "cpp"),
+        Map.entry("cs", "csharp"),
+        Map.entry("rb", "ruby"),
+        Map.entry("php", "php"),
+        Map.entry("sql", "sql")
+    );
+
+    private final CodeReviewService codeReviewService;
+    private final SubmissionWriter submissionWriter;
+    private final NearDuplicateIndex nearDuplicates;
+    private final ThreadPoolExecutor executor;
+
+    private final int concurrency;
+    private final int maxItems;
+
+    public ReviewBatchService(CodeReviewService codeReviewService,
+                              SubmissionWriter submissionWriter,
+                              NearDuplicateIndex nearDuplicates,
+                              @Qualifier("reviewFanoutExecutor") ThreadPoolExecutor executor,
+                              @Value("${review.batch.concurrency:4}") int concurrency,
+                              @Value("${review.batch.max-items:100}") int maxItems) {
+        this.codeReviewService = codeReviewService;
+        this.submissionWriter = submissionWriter;
+        this.nearDuplicates = nearDuplicates;
+        this.executor = executor;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxItems = maxItems;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Review all files of a batch.
+     *
+     * @param requests  the files to review, in input order
+     * @param fileNames optional file names (same order as {@code requests}), may be {@code null}
+     * @param onResult  called from worker threads as each file finishes (before persistence,
+     *                  so {@code submissionId} is not yet set)
+     */
+    public BatchReviewResponse reviewBatch(List<ReviewRequest> requests, List<String> fileNames,
+                                           Consumer<BatchReviewItem> onResult) {
+        if (requests.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxItems + " files");
+        }
+
+        int n = requests.size();
+        BatchReviewItem[] items = new BatchReviewItem[n];
+        PendingReview[] pending = new PendingReview[n];
+        List<CompletableFuture<Void>> futures = new ArrayList<>(n);
+        Semaphore slots = new Semaphore(concurrency);
+
+        try {
+            for (int i = 0; i < n; i++) {
+                final int index = i;
+                BatchReviewItem item = new BatchReviewItem();
+                item.setIndex(index);
+                item.setFileName(fileNames == null ? null : fileNames.get(index));
+                items[index] = item;
+
+                slots.acquire();
+                futures.add(CompletableFuture
+                    .supplyAsync(() -> codeReviewService.prepareReview(requests.get(index)), executor)
+                    .handle((result, error) -> {
+                        slots.release();
+                        if (error != null) {
+                            log.warn("Batch item {} failed: {}", index, error.getMessage());
+                            item.setError(error.getMessage());
+                        } else {
+                            pending[index] = result;
+                            item.setReview(result.response());
+                        }
+                        if (onResult != null) {
+                            onResult.accept(item);
+                        }
+                        return null;
+                    }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scheduling batch review", e);
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        List<CodeSubmission> submissions = new ArrayList<>(n);
+        for (PendingReview p : pending) {
+            if (p != null) {
+                submissions.add(p.submission());
+            }
+        }
+        // One transaction (or one write-behind enqueue); the inserts are JDBC-batched
+        submissionWriter.writeAll(submissions);
+        for (PendingReview p : pending) {
+            if (p != null) {
+                p.response().setSubmissionId(p.submission().getId());
+                nearDuplicates.add(p.submission(), p.response());
+            }
+        }
+
+        return aggregate(items, requests);
+    }
+
+    /**
+     * Best-effort language detection from a file name, used for multipart uploads.
+     */
+    public String languageFor(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot == fileName.length() - 1) {
+            return null;
+        }
+        return LANGUAGES_BY_EXTENSION.get(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private BatchReviewResponse aggregate(BatchReviewItem[] items, List<ReviewRequest> requests) {
+        // Size-weighted mean so that a one-line file does not count as much as a large one
+        long weightedSum = 0;
+        long totalWeight = 0;
+        int failed = 0;
+        for (BatchReviewItem item : items) {
+            if (item.getReview() == null) {
+                failed++;
+                continue;
+            }
+            String code = requests.get(item.getIndex()).getCode();
+            long weight = Math.max(1, code == null ? 0 : code.length());
+            weightedSum += weight * item.getReview().getScore();
+            totalWeight += weight;
+        }
+
+        BatchReviewResponse resp = new BatchReviewResponse();
+        resp.setCount(items.length);
+        resp.setFailed(failed);
+        resp.setAggregateScore(totalWeight == 0 ? 0 : (int) Math.round((double) weightedSum / totalWeight));
+        resp.setResults(List.of(items));
+        return resp;
+    }
+}
@@ -0,0 +1,202 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.ReviewCacheEntry;
+import com.yourorg.aicode.repository.ReviewCacheEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of provider review results keyed by a content hash.
+ * The first tier is a bounded in-heap LRU map with TTL, the second tier is the
+ * {@code review_cache} table so that restarted or additional nodes start warm.
+ * Values are the raw review JSON as stored in {@code CodeSubmission.aiFeedback}.
+ */
+@Service
+public class ReviewCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewCacheService.class);
+
+    private final ReviewCacheEntryRepository repository;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Duration ttl;
+
+    private final Map<String, CachedReview> memory;
+
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    public ReviewCacheService(ReviewCacheEntryRepository repository,
+                              MeterRegistry meterRegistry,
+                              @Value("${review.cache.enabled:true}") boolean enabled,
+                              @Value("${review.cache.max-entries:1000}") int maxEntries,
+                              @Value("${review.cache.ttl:7d}") Duration ttl) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttl = ttl;
+
+        this.memoryHits = meterRegistry.counter("review.cache.requests", "result", "hit", "tier", "memory");
+        this.databaseHits = meterRegistry.counter("review.cache.requests", "result", "hit", "tier", "database");
+        this.misses = meterRegistry.counter("review.cache.requests", "result", "miss", "tier", "none");
+        this.sizeEvictions = meterRegistry.counter("review.cache.evictions", "reason", "size");
+        this.expiredEvictions = meterRegistry.counter("review.cache.evictions", "reason", "expired");
+
+        // Access-ordered LinkedHashMap gives LRU eviction once maxEntries is exceeded
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedReview> eldest) {
+                if (size() > ReviewCacheService.this.maxEntries) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        meterRegistry.gauge("review.cache.size", this, ReviewCacheService::memorySize);
+    }
+
+    /**
+     * Cache key: SHA-256 over the normalized code, language, model and prompt version.
+     */
+    public String cacheKey(String code, String language, String model, String promptVersion) {
+        String lang = language == null ? "" : language.trim().toLowerCase(Locale.ROOT);
+        String material = promptVersion + '\u0000' + model + '\u0000' + lang + '\u0000' + normalize(code);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Look up a cached review JSON, first in memory then in the database.
+     */
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Instant now = Instant.now();
+        synchronized (memory) {
+            CachedReview cached = memory.get(key);
+            if (cached != null) {
+                if (cached.expiresAt().isAfter(now)) {
+                    memoryHits.increment();
+                    return Optional.of(cached.json());
+                }
+                memory.remove(key);
+                expiredEvictions.increment();
+            }
+        }
+
+        try {
+            Optional<ReviewCacheEntry> entry = repository.findByCacheKeyAndExpiresAtAfter(key, now);
+            if (entry.isPresent()) {
+                ReviewCacheEntry e = entry.get();
+                putInMemory(key, e.getReviewJson(), e.getExpiresAt());
+                databaseHits.increment();
+                return Optional.of(e.getReviewJson());
+            }
+        } catch (Exception e) {
+            log.warn("Review cache lookup failed for key {}: {}", key, e.getMessage());
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a provider review in both tiers. Failures to write the database tier are logged
+     * and never fail the review itself.
+     */
+    public void put(String key, String reviewJson, int score, String language, String model, String promptVersion) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        putInMemory(key, reviewJson, expiresAt);
+
+        try {
+            ReviewCacheEntry entry = new ReviewCacheEntry();
+            entry.setCacheKey(key);
+            entry.setLanguage(language);
+            entry.setModel(model);
+            entry.setPromptVersion(promptVersion);
+            entry.setReviewJson(reviewJson);
+            entry.setScore(score);
+            entry.setCreatedAt(now);
+            entry.setExpiresAt(expiresAt);
+            repository.save(entry);
+        } catch (Exception e) {
+            log.warn("Review cache write failed for key {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Transactional
+    public int deleteExpiredEntries() {
+        Instant now = Instant.now();
+        synchronized (memory) {
+            int before = memory.size();
+            memory.values().removeIf(c -> !c.expiresAt().isAfter(now));
+            expiredEvictions.increment(before - memory.size());
+        }
+        return repository.deleteExpiredEntries(now);
+    }
+
+    private void putInMemory(String key, String json, Instant expiresAt) {
+        synchronized (memory) {
+            memory.put(key, new CachedReview(json, expiresAt));
+        }
+    }
+
+    private double memorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    /**
+     * Normalize code so that cosmetic differences (line endings, trailing whitespace,
+     * trailing blank lines) do not change the cache key.
+     */
+    static String normalize(String code) {
+        if (code == null) {
+            return "";
+        }
+        String[] lines = code.replace("\r\n", "\n").replace('\r', '\n').split("\n", -1);
+        StringBuilder sb = new StringBuilder(code.length());
+        for (String line : lines) {
+            sb.append(line.stripTrailing()).append('\n');
+        }
+        int end = sb.length();
+        while (end > 0 && sb.charAt(end - 1) == '\n') {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    private record CachedReview(String json, Instant expiresAt) {
+    }
+}
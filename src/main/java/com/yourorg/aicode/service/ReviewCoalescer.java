@@ -0,0 +1,72 @@
+package com.yourorg.aicode.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-flight execution of provider reviews: concurrent calls with the same key share the
+ * result of the first one instead of each calling the provider. The shared value holds the raw
+ * review JSON, so every caller deserializes its own {@code ReviewResponse}. Keys must cover
+ * everything the review depends on; reviews against a caller's own base are not coalesced.
+ */
+@Component
+public class ReviewCoalescer {
+
+    private final Map<String, CompletableFuture<SharedReview>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter followers;
+
+    public ReviewCoalescer(MeterRegistry meterRegistry) {
+        this.leaders = meterRegistry.counter("review.coalescing.requests", "role", "leader");
+        this.followers = meterRegistry.counter("review.coalescing.requests", "role", "coalesced");
+        meterRegistry.gauge("review.coalescing.in.flight", inFlight, Map::size);
+    }
+
+    /**
+     * Run {@code review} unless an identical review is already in flight, in which case wait
+     * up to {@code maxWait} for its result. Failures are propagated to every waiting caller.
+     *
+     * @throws java.util.concurrent.TimeoutException when the shared review takes longer than {@code maxWait}
+     */
+    public SharedReview execute(String key, Duration maxWait, Callable<SharedReview> review) throws Exception {
+        CompletableFuture<SharedReview> mine = new CompletableFuture<>();
+        CompletableFuture<SharedReview> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            followers.increment();
+            try {
+                return existing.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+
+        leaders.increment();
+        try {
+            SharedReview result = review.call();
+            mine.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * @param json     the review JSON
+     * @param hedgeWon whether a hedged request answered the provider call
+     */
+    public record SharedReview(String json, boolean hedgeWon) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.dto.ReviewHistoryPage;
+import com.yourorg.aicode.model.dto.ReviewSummary;
+import com.yourorg.aicode.repository.CodeSubmissionRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * A user's past reviews, newest first, in keyset pages. The cursor encodes the
+ * {@code (createdAt, id)} of the last review of a page, so the next page continues from there
+ * instead of skipping rows with an offset.
+ */
+@Service
+public class ReviewHistoryService {
+
+    static final int MAX_LIMIT = 100;
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final CodeSubmissionRepository repository;
+
+    public ReviewHistoryService(CodeSubmissionRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     * @throws IllegalArgumentException for a malformed cursor or a limit out of range
+     */
+    @Transactional(readOnly = true)
+    public ReviewHistoryPage page(String owner, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        // One row more than asked tells whether there is a next page
+        Limit fetch = Limit.of(limit + 1);
+        List<ReviewSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = repository.findHistory(owner, fetch);
+        } else {
+            Keyset after = decode(cursor);
+            rows = repository.findHistoryBefore(owner, after.createdAt(), after.id(), fetch);
+        }
+
+        if (rows.size() <= limit) {
+            return new ReviewHistoryPage(rows, null);
+        }
+        List<ReviewSummary> items = rows.subList(0, limit);
+        ReviewSummary last = items.get(limit - 1);
+        return new ReviewHistoryPage(items, encode(new Keyset(last.getCreatedAt(), last.getSubmissionId())));
+    }
+
+    /**
+     * Entity tag of a page; submissions never change once written, so the ids and the next
+     * cursor identify the content.
+     */
+    public String etag(ReviewHistoryPage page) {
+        StringBuilder content = new StringBuilder();
+        for (ReviewSummary item : page.getItems()) {
+            content.append(item.getSubmissionId()).append(',');
+        }
+        content.append(page.getNextCursor());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String encode(Keyset keyset) {
+        String raw = keyset.createdAt() + "|" + keyset.id();
+        return CURSOR_ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Keyset decode(String cursor) {
+        try {
+            String raw = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Keyset(Instant.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Keyset(Instant createdAt, Long id) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.dto.ReviewJobResponse;
+import com.yourorg.aicode.model.dto.ReviewJobResponse.Status;
+import com.yourorg.aicode.model.dto.ReviewRequest;
+import com.yourorg.aicode.model.dto.ReviewResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs reviews as background jobs on a bounded worker pool so that servlet threads
+ * are released immediately. Job state is kept in memory for {@code review.jobs.retention}.
+ */
+@Service
+public class ReviewJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewJobService.class);
+
+    private final CodeReviewService codeReviewService;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+
+    private final Map<String, ReviewJob> jobs = new ConcurrentHashMap<>();
+
+    private final Timer waitTimer;
+    private final Timer runTimer;
+    private final Counter rejected;
+
+    public ReviewJobService(CodeReviewService codeReviewService,
+                            @Qualifier("reviewJobExecutor") ThreadPoolExecutor executor,
+                            MeterRegistry meterRegistry,
+                            @Value("${review.jobs.retention:1h}") Duration retention) {
+        this.codeReviewService = codeReviewService;
+        this.executor = executor;
+        this.retention = retention;
+
+        this.waitTimer = Timer.builder("review.jobs.wait")
+            .description("Time review jobs spend queued before a worker picks them up")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.runTimer = Timer.builder("review.jobs.run")
+            .description("Time spent executing review jobs")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.rejected = meterRegistry.counter("review.jobs.rejected");
+        meterRegistry.gauge("review.jobs.tracked", jobs, Map::size);
+    }
+
+    /**
+     * Enqueue a review and return its job id.
+     *
+     * @throws RejectedExecutionException when the job queue is full
+     */
+    public String submit(ReviewRequest request) {
+        ReviewJob job = new ReviewJob(UUID.randomUUID().toString(), request.getOwner(), Instant.now());
+        jobs.put(job.id, job);
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> run(job, request, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            rejected.increment();
+            throw e;
+        }
+        return job.id;
+    }
+
+    /**
+     * The job, if it exists and was submitted by {@code owner}; other users' jobs are not found.
+     */
+    public Optional<ReviewJobResponse> getJob(String jobId, String owner) {
+        ReviewJob job = jobs.get(jobId);
+        return job == null || !Objects.equals(job.owner, owner) ? Optional.empty() : Optional.of(job.toResponse());
+    }
+
+    /**
+     * Drop finished jobs older than the retention window.
+     */
+    public int purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        int before = jobs.size();
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+        return before - jobs.size();
+    }
+
+    private void run(ReviewJob job, ReviewRequest request, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        job.startedAt = Instant.now();
+        job.status = Status.RUNNING;
+        Status outcome = Status.FAILED;
+        try {
+            job.result = codeReviewService.review(request, preliminary -> {
+                if (job.completedAt == null) {
+                    job.preliminary = preliminary;
+                }
+            });
+            outcome = Status.COMPLETED;
+        } catch (Exception e) {
+            log.warn("Review job {} failed: {}", job.id, e.getMessage());
+            job.error = e.getMessage();
+        } finally {
+            job.completedAt = Instant.now();
+            job.status = outcome;
+            runTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class ReviewJob {
+        private final String id;
+        private final String owner;
+        private final Instant submittedAt;
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant completedAt;
+        private volatile ReviewResponse preliminary;
+        private volatile ReviewResponse result;
+        private volatile String error;
+
+        private ReviewJob(String id, String owner, Instant submittedAt) {
+            this.id = id;
+            this.owner = owner;
+            this.submittedAt = submittedAt;
+        }
+
+        private ReviewJobResponse toResponse() {
+            ReviewJobResponse resp = new ReviewJobResponse();
+            resp.setJobId(id);
+            resp.setStatus(status);
+            resp.setSubmittedAt(submittedAt);
+            resp.setStartedAt(startedAt);
+            resp.setCompletedAt(completedAt);
+            resp.setPreliminary(result == null ? preliminary : null);
+            resp.setResult(result);
+            resp.setError(error);
+            return resp;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.dto.ReviewFinding;
+import com.yourorg.aicode.model.dto.ReviewResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Merges several partial reviews into one {@link ReviewResponse}.
+ * Findings are de-duplicated case- and whitespace-insensitively, keeping the first wording;
+ * the score is the weight-averaged score of the parts.
+ */
+final class ReviewMerger {
+
+    private ReviewMerger() {
+    }
+
+    /**
+     * @param parts   partial reviews
+     * @param weights weight of each part (e.g. its size in characters), same order as {@code parts}
+     */
+    static ReviewResponse merge(List<ReviewResponse> parts, List<Integer> weights) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        long weightedSum = 0;
+        long totalWeight = 0;
+        List<String> summaries = new ArrayList<>();
+        List<String> comments = new ArrayList<>();
+        List<String[]> issues = new ArrayList<>();
+        List<String[]> suggestions = new ArrayList<>();
+        List<String[]> bestPractices = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            ReviewResponse part = parts.get(i);
+            long weight = Math.max(1, weights.get(i));
+            weightedSum += weight * part.getScore();
+            totalWeight += weight;
+            if (part.getSummary() != null && !part.getSummary().isBlank()) {
+                summaries.add(part.getSummary().trim());
+            }
+            if (part.getComments() != null && !part.getComments().isBlank()) {
+                comments.add(part.getComments().trim());
+            }
+            issues.add(part.getIssues());
+            suggestions.add(part.getSuggestions());
+            bestPractices.add(part.getBestPractices());
+        }
+
+        ReviewResponse merged = new ReviewResponse();
+        merged.setScore((int) Math.round((double) weightedSum / totalWeight));
+        merged.setSummary(String.join(" ", dedupe(summaries)));
+        merged.setComments(String.join("\n", dedupe(comments)));
+        merged.setIssues(dedupe(flatten(issues)).toArray(new String[0]));
+        merged.setSuggestions(dedupe(flatten(suggestions)).toArray(new String[0]));
+        merged.setBestPractices(dedupe(flatten(bestPractices)).toArray(new String[0]));
+        // Partial fixes cannot be stitched back into one file reliably
+        merged.setFixCode(null);
+        return merged;
+    }
+
+    /**
+     * Add local rule findings to a model review. A local finding whose pattern the model
+     * already mentions in an issue is dropped as a duplicate; the rest are appended to the
+     * issues as {@code "Line N: ..."}. {@code findings} lists every issue tagged by source
+     * and category.
+     */
+    static ReviewResponse withLocalFindings(ReviewResponse review, List<LocalRuleEngine.Finding> local) {
+        // Model arrays may contain nulls; dedupe drops them
+        List<String> issues = review.getIssues() == null ? new ArrayList<>() : dedupe(Arrays.asList(review.getIssues()));
+        List<String> suggestions = review.getSuggestions() == null ? new ArrayList<>() : dedupe(Arrays.asList(review.getSuggestions()));
+        List<ReviewFinding> findings = new ArrayList<>(issues.size() + local.size());
+        List<String> modelIssues = new ArrayList<>(issues.size());
+        for (String issue : issues) {
+            findings.add(new ReviewFinding(ReviewFinding.SOURCE_AI, null, FindingCategories.of(issue), null, issue));
+            modelIssues.add(issue.toLowerCase(Locale.ROOT));
+        }
+
+        for (LocalRuleEngine.Finding finding : local) {
+            Pattern keyword = keyword(finding.pattern());
+            if (keyword != null && modelIssues.stream().anyMatch(issue -> keyword.matcher(issue).find())) {
+                continue;
+            }
+            String issue = localIssue(finding);
+            issues.add(issue);
+            findings.add(new ReviewFinding(ReviewFinding.SOURCE_LOCAL, finding.ruleId(),
+                FindingCategories.of(finding.message()), finding.line(), issue));
+            if (finding.suggestion() != null) {
+                suggestions.add(finding.suggestion());
+            }
+        }
+
+        review.setIssues(issues.toArray(new String[0]));
+        review.setSuggestions(dedupe(suggestions).toArray(new String[0]));
+        review.setFindings(findings);
+        review.setSource(ReviewFinding.SOURCE_AI);
+        return review;
+    }
+
+    static String localIssue(LocalRuleEngine.Finding finding) {
+        return "Line " + finding.line() + ": " + finding.message();
+    }
+
+    /**
+     * Whole-word matcher for the pattern without surrounding punctuation, lower-cased
+     * ({@code "eval("} -> {@code eval}); {@code null} when too short to be meaningful in free text.
+     */
+    private static Pattern keyword(String pattern) {
+        String keyword = pattern.replaceAll("^[^\\p{Alnum}]+|[^\\p{Alnum}]+$", "").toLowerCase(Locale.ROOT);
+        return keyword.length() < 3 ? null : Pattern.compile("\\b" + Pattern.quote(keyword) + "\\b");
+    }
+
+    static List<String> dedupe(List<String> values) {
+        Map<String, String> unique = new LinkedHashMap<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                unique.putIfAbsent(normalize(value), value.trim());
+            }
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private static List<String> flatten(List<String[]> arrays) {
+        List<String> all = new ArrayList<>();
+        for (String[] array : arrays) {
+            if (array != null) {
+                // May contain nulls, dropped by dedupe
+                all.addAll(Arrays.asList(array));
+            }
+        }
+        return all;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().replaceAll("\\s+", " ").replaceAll("[.;:!]+$", "").toLowerCase(Locale.ROOT);
+    }
+}
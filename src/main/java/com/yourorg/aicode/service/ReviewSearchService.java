@@ -0,0 +1,76 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.dto.ReviewSearchHit;
+import com.yourorg.aicode.model.dto.ReviewSummary;
+import com.yourorg.aicode.repository.CodeSubmissionRepository;
+import com.yourorg.aicode.repository.CodeSubmissionRepository.SearchHit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Search over a user's reviews and submitted code. Matching, ranking and snippet highlighting
+ * all happen in Postgres (see {@link CodeSubmissionRepository#search}).
+ */
+@Service
+public class ReviewSearchService {
+
+    static final int MAX_QUERY_LENGTH = 200;
+    static final int MAX_LIMIT = 50;
+    // Ranked results are paged by offset; deep pages rank every match, so they are capped
+    static final int MAX_RESULTS = 1000;
+
+    private final CodeSubmissionRepository repository;
+
+    public ReviewSearchService(CodeSubmissionRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @param query    web search syntax: words, {@code "quoted phrases"}, {@code or}, {@code -excluded}
+     * @param language only submissions in this language, or any when null
+     * @param days     only submissions of the last {@code days} days
+     * @param page     zero-based page of {@code limit} results, best match first
+     */
+    @Transactional(readOnly = true)
+    public List<ReviewSearchHit> search(String owner, String query, String language, int days, int page, int limit) {
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("query must be 1 to " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (days < 1 || days > ReviewStatsService.MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + ReviewStatsService.MAX_DAYS);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (page < 0 || (long) (page + 1) * limit > MAX_RESULTS) {
+            throw new IllegalArgumentException("Only the first " + MAX_RESULTS + " results can be paged through");
+        }
+
+        String languageFilter = language == null || language.isBlank() ? null : language.trim();
+        List<SearchHit> hits = repository.search(owner, query.trim(), languageFilter,
+            Instant.now().minus(Duration.ofDays(days)), limit, page * limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ReviewSummary> summaries = repository.findSummariesByIdIn(
+                hits.stream().map(SearchHit::getSubmissionId).toList()).stream()
+            .collect(Collectors.toMap(ReviewSummary::getSubmissionId, Function.identity()));
+        List<ReviewSearchHit> results = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            ReviewSummary summary = summaries.get(hit.getSubmissionId());
+            if (summary != null) {
+                results.add(new ReviewSearchHit(summary, hit.getRank(), hit.getSnippet(), hit.getCodeMatch()));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,63 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.repository.CodeSubmissionRepository;
+import com.yourorg.aicode.repository.CodeSubmissionRepository.CategoryCount;
+import com.yourorg.aicode.repository.CodeSubmissionRepository.RuleCount;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Finding statistics over stored reviews. The aggregation runs in Postgres on the review
+ * jsonb; no submissions are loaded.
+ */
+@Service
+public class ReviewStatsService {
+
+    static final int MAX_LIMIT = 100;
+    static final int MAX_DAYS = 366;
+
+    private final CodeSubmissionRepository repository;
+
+    public ReviewStatsService(CodeSubmissionRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Most frequent finding categories of the last {@code days} days.
+     *
+     * @param author only this author's submissions, or everyone's when null
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryCount> topFindingCategories(String author, int days, int limit) {
+        validate(days, limit);
+        return repository.findTopFindingCategories(author, since(days), limit);
+    }
+
+    /**
+     * Local rules that fired most often in the last {@code days} days.
+     *
+     * @param author only this author's submissions, or everyone's when null
+     */
+    @Transactional(readOnly = true)
+    public List<RuleCount> topLocalRules(String author, int days, int limit) {
+        validate(days, limit);
+        return repository.findTopLocalRules(author, since(days), limit);
+    }
+
+    private static void validate(int days, int limit) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    private static Instant since(int days) {
+        return Instant.now().minus(Duration.ofDays(days));
+    }
+}
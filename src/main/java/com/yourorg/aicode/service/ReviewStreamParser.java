@@ -0,0 +1,130 @@
+package com.yourorg.aicode.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BiConsumer;
+
+/**
+ * Incremental parser for the review JSON produced by a streaming model response.
+ * Text fragments are fed as they arrive; every top-level field is reported as soon as
+ * its value is complete, and items of top-level arrays are reported one by one
+ * (as {@code "<field>.item"}). Leading markdown fences and trailing text are ignored.
+ */
+class ReviewStreamParser {
+
+    private final BiConsumer<String, JsonNode> onField;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final JsonNodeFactory nodes = JsonNodeFactory.instance;
+
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private ObjectNode root;
+    private boolean started;
+    private boolean finished;
+
+    ReviewStreamParser(ObjectMapper objectMapper, BiConsumer<String, JsonNode> onField) throws IOException {
+        this.onField = onField;
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feed the next fragment of model output.
+     */
+    void feed(String fragment) throws IOException {
+        if (finished || fragment == null || fragment.isEmpty()) {
+            return;
+        }
+        if (!started) {
+            // Skip anything (e.g. "```json") before the opening brace of the review object
+            int brace = fragment.indexOf('{');
+            if (brace < 0) {
+                return;
+            }
+            fragment = fragment.substring(brace);
+            started = true;
+        }
+        byte[] bytes = fragment.getBytes(StandardCharsets.UTF_8);
+        feeder.feedInput(bytes, 0, bytes.length);
+        drain();
+    }
+
+    boolean isComplete() {
+        return finished;
+    }
+
+    /**
+     * The complete review object, available once the closing brace has been parsed.
+     */
+    ObjectNode result() throws IOException {
+        if (!finished) {
+            throw new IOException("Model stream ended before the review JSON was complete");
+        }
+        return root;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT -> stack.push(new Frame(nodes.objectNode()));
+                case START_ARRAY -> stack.push(new Frame(nodes.arrayNode()));
+                case FIELD_NAME -> stack.peek().field = parser.currentName();
+                case END_OBJECT, END_ARRAY -> {
+                    Frame done = stack.pop();
+                    if (stack.isEmpty()) {
+                        root = done.node instanceof ObjectNode object ? object : nodes.objectNode();
+                        finished = true;
+                        feeder.endOfInput();
+                    } else {
+                        attach(done.node);
+                    }
+                }
+                case VALUE_STRING -> attach(nodes.textNode(parser.getText()));
+                case VALUE_NUMBER_INT -> attach(nodes.numberNode(parser.getLongValue()));
+                case VALUE_NUMBER_FLOAT -> attach(nodes.numberNode(parser.getDoubleValue()));
+                case VALUE_TRUE -> attach(nodes.booleanNode(true));
+                case VALUE_FALSE -> attach(nodes.booleanNode(false));
+                case VALUE_NULL -> attach(nodes.nullNode());
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void attach(JsonNode value) {
+        Frame parent = stack.peek();
+        if (parent.node instanceof ObjectNode object) {
+            object.set(parent.field, value);
+            if (stack.size() == 1) {
+                onField.accept(parent.field, value);
+            }
+        } else if (parent.node instanceof ArrayNode array) {
+            array.add(value);
+            if (stack.size() == 2) {
+                onField.accept(stack.peekLast().field + ".item", value);
+            }
+        }
+    }
+
+    private static final class Frame {
+        private final ContainerNode<?> node;
+        private String field;
+
+        private Frame(ContainerNode<?> node) {
+            this.node = node;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.dto.BatchReviewResponse;
+import com.yourorg.aicode.model.dto.ReviewRequest;
+import com.yourorg.aicode.model.dto.ReviewResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams review output to the client as server-sent events.
+ * Each completed review field becomes an event named after the field; a final
+ * {@code complete} event carries the full {@link ReviewResponse} with its submission id.
+ */
+@Service
+public class ReviewStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewStreamService.class);
+
+    private final CodeReviewService codeReviewService;
+    private final ReviewBatchService batchService;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public ReviewStreamService(CodeReviewService codeReviewService,
+                               ReviewBatchService batchService,
+                               @Qualifier("reviewJobExecutor") ThreadPoolExecutor executor,
+                               @Value("${review.stream.timeout:5m}") Duration timeout) {
+        this.codeReviewService = codeReviewService;
+        this.batchService = batchService;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Start a streaming review on the review worker pool and return the emitter to the caller.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when the worker queue is full
+     */
+    public SseEmitter open(ReviewRequest request) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        AtomicBoolean clientGone = new AtomicBoolean();
+        emitter.onTimeout(() -> clientGone.set(true));
+        emitter.onError(e -> clientGone.set(true));
+
+        executor.execute(() -> {
+            try {
+                ReviewResponse result = codeReviewService.streamReview(request,
+                    (name, value) -> send(emitter, clientGone, name, value));
+                send(emitter, clientGone, "complete", result);
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("Streaming review failed: {}", e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Run a batch review and stream one {@code result} event per file as it finishes,
+     * followed by a {@code complete} event with the aggregated {@link BatchReviewResponse}.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when the worker queue is full
+     */
+    public SseEmitter openBatch(List<ReviewRequest> requests, List<String> fileNames) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        AtomicBoolean clientGone = new AtomicBoolean();
+        emitter.onTimeout(() -> clientGone.set(true));
+        emitter.onError(e -> clientGone.set(true));
+
+        executor.execute(() -> {
+            try {
+                BatchReviewResponse result = batchService.reviewBatch(requests, fileNames,
+                    item -> send(emitter, clientGone, "result", item));
+                send(emitter, clientGone, "complete", result);
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("Streaming batch review failed: {}", e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, AtomicBoolean clientGone, String name, Object data) {
+        if (clientGone.get()) {
+            // Keep reviewing so the submission is still stored, just stop writing
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                .name(name)
+                .data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            clientGone.set(true);
+        }
+    }
+}
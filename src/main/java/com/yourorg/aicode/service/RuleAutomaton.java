@@ -0,0 +1,163 @@
+package com.yourorg.aicode.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton over a set of literal patterns, compiled into a dense transition
+ * table so that a scan is one array lookup per character and allocates nothing.
+ * Characters that occur in no pattern share one character class.
+ */
+final class RuleAutomaton {
+
+    private final int[] patternLengths;
+
+    // Character classes: ASCII through a table, anything else by binary search
+    private final int[] asciiClass = new int[128];
+    private final char[] otherChars;
+    private final int[] otherClass;
+    private final int width;
+
+    // delta[state * width + class] -> next state
+    private final int[] delta;
+
+    // Patterns recognized in a state: outputs[outputStart[s] .. outputStart[s + 1])
+    private final int[] outputStart;
+    private final int[] outputs;
+
+    /**
+     * Receives matches; {@code end} is exclusive, {@code line} is 0-based within the scanned range.
+     */
+    @FunctionalInterface
+    interface MatchListener {
+        void onMatch(int pattern, int end, int line);
+    }
+
+    RuleAutomaton(List<String> patterns) {
+        this.patternLengths = new int[patterns.size()];
+
+        TreeSet<Character> alphabet = new TreeSet<>();
+        for (String p : patterns) {
+            for (int i = 0; i < p.length(); i++) {
+                alphabet.add(p.charAt(i));
+            }
+        }
+        int nextClass = 1;
+        List<Character> nonAscii = new ArrayList<>();
+        for (char c : alphabet) {
+            if (c < 128) {
+                asciiClass[c] = nextClass++;
+            } else {
+                nonAscii.add(c);
+            }
+        }
+        this.otherChars = new char[nonAscii.size()];
+        this.otherClass = new int[nonAscii.size()];
+        for (int i = 0; i < nonAscii.size(); i++) {
+            otherChars[i] = nonAscii.get(i);
+            otherClass[i] = nextClass++;
+        }
+        this.width = nextClass;
+
+        // Trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> own = new ArrayList<>();
+        trie.add(new int[width]);
+        own.add(new ArrayList<>());
+        for (int id = 0; id < patterns.size(); id++) {
+            String p = patterns.get(id);
+            patternLengths[id] = p.length();
+            int state = 0;
+            for (int i = 0; i < p.length(); i++) {
+                int cls = classOf(p.charAt(i));
+                if (trie.get(state)[cls] == 0) {
+                    trie.get(state)[cls] = trie.size();
+                    trie.add(new int[width]);
+                    own.add(new ArrayList<>());
+                }
+                state = trie.get(state)[cls];
+            }
+            own.get(state).add(id);
+        }
+
+        // Breadth-first: failure links folded into a full transition table, outputs merged
+        int states = trie.size();
+        this.delta = new int[states * width];
+        int[] fail = new int[states];
+        List<List<Integer>> out = new ArrayList<>(own);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int cls = 0; cls < width; cls++) {
+            int child = trie.get(0)[cls];
+            delta[cls] = child;
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (!out.get(fail[state]).isEmpty()) {
+                List<Integer> merged = new ArrayList<>(out.get(state));
+                merged.addAll(out.get(fail[state]));
+                out.set(state, merged);
+            }
+            for (int cls = 0; cls < width; cls++) {
+                int child = trie.get(state)[cls];
+                if (child != 0) {
+                    fail[child] = delta[fail[state] * width + cls];
+                    delta[state * width + cls] = child;
+                    queue.add(child);
+                } else {
+                    delta[state * width + cls] = delta[fail[state] * width + cls];
+                }
+            }
+        }
+
+        this.outputStart = new int[states + 1];
+        for (int s = 0; s < states; s++) {
+            outputStart[s + 1] = outputStart[s] + out.get(s).size();
+        }
+        this.outputs = new int[outputStart[states]];
+        for (int s = 0; s < states; s++) {
+            List<Integer> o = out.get(s);
+            for (int i = 0; i < o.size(); i++) {
+                outputs[outputStart[s] + i] = o.get(i);
+            }
+        }
+    }
+
+    int patternLength(int pattern) {
+        return patternLengths[pattern];
+    }
+
+    /**
+     * Scan {@code text[from, to)} from the initial state.
+     *
+     * @return number of line breaks in the range
+     */
+    int scan(CharSequence text, int from, int to, MatchListener listener) {
+        int state = 0;
+        int line = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+            }
+            state = delta[state * width + classOf(c)];
+            for (int o = outputStart[state]; o < outputStart[state + 1]; o++) {
+                listener.onMatch(outputs[o], i + 1, line);
+            }
+        }
+        return line;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClass[c];
+        }
+        int idx = Arrays.binarySearch(otherChars, c);
+        return idx >= 0 ? otherClass[idx] : 0;
+    }
+}
@@ -0,0 +1,302 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.CodeSubmission;
+import com.yourorg.aicode.model.dto.ScoreAnalytics;
+import com.yourorg.aicode.model.dto.ScoreAnalytics.ScoreStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Score rollups per week, author and language ({@code score_rollups}, see schema.sql). Saved
+ * submissions are added in the transaction that inserts them, so the rollups never drift from
+ * the table; analytics read only the rollups. {@link #rebuild()} recomputes them from the
+ * stored history one week at a time, e.g. after a backfill.
+ */
+@Service
+public class ScoreRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoreRollupService.class);
+
+    // Fixed buckets 0-9, 10-19, ..., 90-100
+    static final int BUCKETS = 10;
+    static final int MAX_WEEKS = 104;
+    static final int MAX_GROUPS = 50;
+
+    private static final String UPSERT =
+        "INSERT INTO score_rollups (week, author, language, submissions, score_sum, histogram) "
+        + "VALUES (?, ?, ?, ?, ?, CAST(? AS bigint[])) "
+        + "ON CONFLICT (week, author, language) DO UPDATE SET "
+        + "submissions = score_rollups.submissions + EXCLUDED.submissions, "
+        + "score_sum = score_rollups.score_sum + EXCLUDED.score_sum, "
+        + "histogram = ARRAY(SELECT o + n FROM unnest(score_rollups.histogram, EXCLUDED.histogram) "
+        + "WITH ORDINALITY AS h(o, n, i) ORDER BY i)";
+
+    private static final String REBUILD_WEEK =
+        "INSERT INTO score_rollups (week, author, language, submissions, score_sum, histogram) "
+        + "SELECT ?, coalesce(author, ''), coalesce(language, ''), count(*), sum(score), ARRAY["
+        + IntStream.range(0, BUCKETS)
+            .mapToObj(bucket -> "count(*) FILTER (WHERE least(greatest(score, 0) / 10, " + (BUCKETS - 1) + ") = " + bucket + ")")
+            .collect(Collectors.joining(", "))
+        + "] FROM code_submissions WHERE created_at >= ? AND created_at < ? AND score IS NOT NULL "
+        + "GROUP BY coalesce(author, ''), coalesce(language, '')";
+
+    private static final String SELECT =
+        "SELECT week, author, language, submissions, score_sum, histogram FROM score_rollups WHERE week >= ? "
+        + "AND (CAST(? AS text) IS NULL OR author = CAST(? AS text)) "
+        + "AND (CAST(? AS text) IS NULL OR language = CAST(? AS text))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SubmissionPartitionService partitions;
+    private final boolean rebuildOnStartup;
+    private final Timer recordLatency;
+
+    public ScoreRollupService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              SubmissionPartitionService partitions,
+                              MeterRegistry meterRegistry,
+                              @Value("${review.analytics.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitions = partitions;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.recordLatency = Timer.builder("review.analytics.rollup.latency")
+            .description("Time to add a batch of saved submissions to the score rollups")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Add saved submissions to their rollups. Must run in the transaction that inserts them, so
+     * that every submission is counted exactly once.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<CodeSubmission> submissions) {
+        long start = System.nanoTime();
+        // Sorted, so concurrent transactions lock the rollup rows in the same order
+        Map<RollupKey, Rollup> rollups = new TreeMap<>();
+        for (CodeSubmission submission : submissions) {
+            if (submission.getScore() == null || submission.getCreatedAt() == null) {
+                continue;
+            }
+            RollupKey key = new RollupKey(weekOf(submission.getCreatedAt().atOffset(ZoneOffset.UTC).toLocalDate()),
+                submission.getAuthor() == null ? "" : submission.getAuthor(),
+                submission.getLanguage() == null ? "" : submission.getLanguage());
+            rollups.computeIfAbsent(key, k -> new Rollup()).add(submission.getScore());
+        }
+        if (rollups.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(rollups.size());
+        rollups.forEach((key, rollup) -> rows.add(new Object[]{key.week(), key.author(), key.language(),
+            rollup.submissions, rollup.scoreSum, arrayLiteral(rollup.histogram)}));
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+        recordLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Score statistics of the last {@code weeks} weeks (the current one included), read from the
+     * rollups only.
+     *
+     * @param author   only this author, or everyone when null
+     * @param language only this language, or every language when null
+     */
+    public ScoreAnalytics analytics(String author, String language, int weeks) {
+        if (weeks < 1 || weeks > MAX_WEEKS) {
+            throw new IllegalArgumentException("weeks must be between 1 and " + MAX_WEEKS);
+        }
+        LocalDate from = currentWeek().minusWeeks(weeks - 1);
+
+        Rollup overall = new Rollup();
+        Map<LocalDate, Rollup> byWeek = new TreeMap<>();
+        Map<String, Rollup> byAuthor = new HashMap<>();
+        Map<String, Rollup> byLanguage = new HashMap<>();
+        jdbcTemplate.query(SELECT, rs -> {
+            Rollup row = Rollup.of(rs);
+            overall.add(row);
+            byWeek.computeIfAbsent(rs.getObject("week", LocalDate.class), k -> new Rollup()).add(row);
+            byAuthor.computeIfAbsent(rs.getString("author"), k -> new Rollup()).add(row);
+            byLanguage.computeIfAbsent(rs.getString("language"), k -> new Rollup()).add(row);
+        }, from, author, author, language, language);
+
+        ScoreAnalytics analytics = new ScoreAnalytics();
+        analytics.setFrom(from);
+        analytics.setWeeks(weeks);
+        analytics.setOverall(overall.toStats(null));
+        analytics.setByWeek(byWeek.entrySet().stream()
+            .map(e -> e.getValue().toStats(e.getKey().toString()))
+            .toList());
+        analytics.setByAuthor(largest(byAuthor));
+        analytics.setByLanguage(largest(byLanguage));
+        return analytics;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfNeeded() {
+        Boolean missing = jdbcTemplate.queryForObject(
+            "SELECT NOT EXISTS (SELECT 1 FROM score_rollups) AND EXISTS (SELECT 1 FROM code_submissions)", Boolean.class);
+        if (rebuildOnStartup || Boolean.TRUE.equals(missing)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recompute the rollups of every week that still has stored submissions, one week per
+     * transaction. Weeks whose partitions were archived keep their rollups.
+     */
+    public void rebuild() {
+        Optional<YearMonth> oldest = partitions.oldestPartitionMonth();
+        if (oldest.isEmpty()) {
+            return;
+        }
+        // A week reaching into an archived month keeps its rollups: only part of it is still stored
+        LocalDate week = oldest.get().atDay(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        LocalDate last = currentWeek();
+        long start = System.nanoTime();
+        int weeks = 0;
+        for (; !week.isAfter(last); week = week.plusWeeks(1)) {
+            LocalDate chunk = week;
+            transactionTemplate.executeWithoutResult(status -> rebuildWeek(chunk));
+            weeks++;
+        }
+        log.info("Rebuilt score rollups of {} weeks in {} ms", weeks,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void rebuildWeek(LocalDate week) {
+        // Holds off record() until this week is recomputed, so no submission is lost or counted twice
+        jdbcTemplate.execute("LOCK TABLE score_rollups IN SHARE ROW EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM score_rollups WHERE week = ?", week);
+        OffsetDateTime from = week.atStartOfDay().atOffset(ZoneOffset.UTC);
+        jdbcTemplate.update(REBUILD_WEEK, week, from, from.plusWeeks(1));
+    }
+
+    private static List<ScoreStats> largest(Map<String, Rollup> groups) {
+        return groups.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, Rollup> e) -> e.getValue().submissions).reversed())
+            .limit(MAX_GROUPS)
+            .map(e -> e.getValue().toStats(e.getKey()))
+            .toList();
+    }
+
+    private static LocalDate currentWeek() {
+        return weekOf(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    private static LocalDate weekOf(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static String arrayLiteral(long[] values) {
+        StringBuilder literal = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            literal.append(i == 0 ? "" : ",").append(values[i]);
+        }
+        return literal.append('}').toString();
+    }
+
+    private record RollupKey(LocalDate week, String author, String language) implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::week)
+            .thenComparing(RollupKey::author)
+            .thenComparing(RollupKey::language);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Rollup {
+        private long submissions;
+        private long scoreSum;
+        private final long[] histogram = new long[BUCKETS];
+
+        static Rollup of(ResultSet rs) throws SQLException {
+            Rollup rollup = new Rollup();
+            rollup.submissions = rs.getLong("submissions");
+            rollup.scoreSum = rs.getLong("score_sum");
+            Array array = rs.getArray("histogram");
+            Object[] buckets = (Object[]) array.getArray();
+            for (int i = 0; i < Math.min(BUCKETS, buckets.length); i++) {
+                rollup.histogram[i] = ((Number) buckets[i]).longValue();
+            }
+            return rollup;
+        }
+
+        void add(int score) {
+            submissions++;
+            scoreSum += score;
+            histogram[Math.min(Math.max(score, 0) / 10, BUCKETS - 1)]++;
+        }
+
+        void add(Rollup other) {
+            submissions += other.submissions;
+            scoreSum += other.scoreSum;
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+
+        ScoreStats toStats(String key) {
+            double average = submissions == 0 ? 0 : round((double) scoreSum / submissions);
+            return new ScoreStats(key, submissions, average, percentile(0.5), percentile(0.9), histogram.clone());
+        }
+
+        /**
+         * Percentile estimated by linear interpolation inside the bucket it falls in.
+         */
+        private double percentile(double p) {
+            if (submissions == 0) {
+                return 0;
+            }
+            double rank = p * submissions;
+            long below = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (histogram[i] > 0 && below + histogram[i] >= rank) {
+                    double low = i * 10;
+                    double width = i == BUCKETS - 1 ? 11 : 10;
+                    return round(low + width * (rank - below) / histogram[i]);
+                }
+                below += histogram[i];
+            }
+            return 100;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 10) / 10.0;
+        }
+    }
+}
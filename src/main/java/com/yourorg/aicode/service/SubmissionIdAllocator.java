@@ -0,0 +1,37 @@
+package com.yourorg.aicode.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out submission ids before anything is written. Same pooled scheme Hibernate used
+ * for {@code code_submissions_seq}: one {@code nextval} reserves the block
+ * {@code (value - 50, value]}, so nodes and restarts never overlap.
+ */
+@Component
+public class SubmissionIdAllocator {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long next = 1;
+    private long last = 0;
+
+    public SubmissionIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public synchronized long next() {
+        if (next > last) {
+            Long hi = jdbcTemplate.queryForObject("SELECT nextval('code_submissions_seq')", Long.class);
+            if (hi == null) {
+                throw new IllegalStateException("code_submissions_seq returned no value");
+            }
+            last = hi;
+            // A fresh sequence starts at 1, which reserves only id 1
+            next = Math.max(1, hi - ALLOCATION_SIZE + 1);
+        }
+        return next++;
+    }
+}
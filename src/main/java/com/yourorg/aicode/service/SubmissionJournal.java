@@ -0,0 +1,188 @@
+package com.yourorg.aicode.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.aicode.model.CodeSubmission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only log of submissions that are queued for write-behind but not yet in
+ * the database. Entries go to the current segment file; a flush rotates to a new segment
+ * and deletes the old one once its submissions are committed. Segments left over after a
+ * crash are replayed at startup. Submissions the database keeps rejecting are moved to
+ * {@code rejected.log}, which is never replayed, for manual inspection.
+ */
+final class SubmissionJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionJournal.class);
+
+    private static final String PREFIX = "submissions-";
+    private static final String SUFFIX = ".log";
+    private static final String REJECTED = "rejected.log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long nextSegment;
+    private Path current;
+    private FileChannel channel;
+
+    SubmissionJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        for (Path segment : segments()) {
+            nextSegment = Math.max(nextSegment, segmentNumber(segment) + 1);
+        }
+    }
+
+    /**
+     * Segment files present on disk, oldest first.
+     */
+    List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(PREFIX)
+                    && f.getFileName().toString().endsWith(SUFFIX))
+                .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                .toList();
+        }
+    }
+
+    void append(List<CodeSubmission> submissions) throws IOException {
+        if (channel == null) {
+            open();
+        }
+        write(channel, submissions);
+    }
+
+    /**
+     * Set submissions aside in {@code rejected.log}.
+     */
+    void reject(List<CodeSubmission> submissions) throws IOException {
+        try (FileChannel rejected = FileChannel.open(directory.resolve(REJECTED), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            write(rejected, submissions);
+        }
+    }
+
+    /**
+     * Close the current segment and start a new one on the next append.
+     *
+     * @return the closed segment, or null if nothing was written since the last rotation
+     */
+    Path rotate() throws IOException {
+        if (channel == null) {
+            return null;
+        }
+        channel.close();
+        channel = null;
+        return current;
+    }
+
+    void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            log.warn("Cannot delete journal segment {}: {}", segment, e.getMessage());
+        }
+    }
+
+    /**
+     * Read a segment. A torn last line (crash while appending) is skipped.
+     */
+    List<CodeSubmission> read(Path segment) throws IOException {
+        List<CodeSubmission> submissions = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    submissions.add(objectMapper.readValue(line, Entry.class).toSubmission());
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable entry in journal segment {}: {}", segment, e.getMessage());
+                }
+            }
+        }
+        return submissions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        rotate();
+    }
+
+    private void write(FileChannel target, List<CodeSubmission> submissions) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (CodeSubmission submission : submissions) {
+            lines.append(objectMapper.writeValueAsString(Entry.of(submission))).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        if (fsync) {
+            target.force(false);
+        }
+    }
+
+    private void open() throws IOException {
+        current = directory.resolve(PREFIX + String.format("%012d", nextSegment++) + SUFFIX);
+        channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Journal form of a submission; the code is kept in full since its blob may not be stored yet.
+     */
+    record Entry(Long id, String owner, String author, String code, String language, String aiFeedback,
+                 Integer score, String createdAt, Long baseSubmissionId, Boolean hedgeWon, Long codeSimhash) {
+
+        static Entry of(CodeSubmission s) {
+            return new Entry(s.getId(), s.getOwner(), s.getAuthor(), s.getCode(), s.getLanguage(), s.getAiFeedback(),
+                s.getScore(), s.getCreatedAt() == null ? null : s.getCreatedAt().toString(), s.getBaseSubmissionId(),
+                s.getHedgeWon(), s.getCodeSimhash());
+        }
+
+        CodeSubmission toSubmission() {
+            CodeSubmission s = new CodeSubmission();
+            s.setId(id);
+            s.setOwner(owner);
+            s.setAuthor(author);
+            s.setCode(code);
+            s.setLanguage(language);
+            s.setAiFeedback(aiFeedback);
+            s.setScore(score);
+            s.setCreatedAt(createdAt == null ? null : Instant.parse(createdAt));
+            s.setBaseSubmissionId(baseSubmissionId);
+            s.setHedgeWon(hedgeWon);
+            s.setCodeSimhash(codeSimhash);
+            return s;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.yourorg.aicode.service;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.aicode.model.CodeBlob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of {@code code_submissions} (see schema.sql). Partitions are
+ * created {@code review.retention.partitions-ahead} months in advance. With
+ * {@code review.retention.months} set, each partition that lies entirely before the retention
+ * window is detached (concurrently, so inserts are not blocked), exported with its code to
+ * {@code <archive-dir>/<partition>.ndjson.gz} and dropped; rows are never deleted one by one.
+ * Code blobs no longer referenced by any submission are removed afterwards.
+ */
+@Service
+public class SubmissionPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionPartitionService.class);
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("code_submissions_p(\\d{4})(\\d{2})");
+
+    private static final String PARTITIONS =
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+        + "WHERE i.inhparent = 'code_submissions'::regclass AND i.inhdetachpending = ? ORDER BY c.relname";
+
+    private static final String DETACHED_PARTITIONS =
+        "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+        + "WHERE n.nspname = current_schema() AND c.relkind = 'r' AND c.relname ~ '^code_submissions_p[0-9]{6}$' "
+        + "AND NOT EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = c.oid) ORDER BY c.relname";
+
+    private static final String EXPORT =
+        "SELECT s.id, s.owner, s.author, s.language, s.score, s.created_at, s.base_submission_id, s.hedge_won, "
+        + "s.code_hash, CAST(s.ai_feedback AS text) AS review, b.compression, b.data, b.original_length "
+        + "FROM %s s LEFT JOIN code_blobs b ON b.hash = s.code_hash ORDER BY s.id";
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int BLOB_DELETE_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Same data source, but streams result sets in chunks instead of reading them whole
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final int retentionMonths;
+    private final int partitionsAhead;
+    private final Path archiveDirectory;
+
+    private final Counter archivedSubmissions;
+    private final Counter droppedPartitions;
+
+    public SubmissionPartitionService(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${review.retention.months:0}") int retentionMonths,
+                                      @Value("${review.retention.partitions-ahead:3}") int partitionsAhead,
+                                      @Value("${review.retention.archive-dir:./data/archive}") String archiveDirectory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exportJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.retentionMonths = retentionMonths;
+        this.partitionsAhead = Math.max(1, partitionsAhead);
+        this.archiveDirectory = Path.of(archiveDirectory);
+
+        this.archivedSubmissions = meterRegistry.counter("review.retention.archived.submissions");
+        this.droppedPartitions = meterRegistry.counter("review.retention.partitions.dropped");
+    }
+
+    /**
+     * Create the partitions of this month and the next {@code partitions-ahead} months.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitions() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= partitionsAhead; i++) {
+            jdbcTemplate.queryForObject("SELECT code_submissions_create_partition(CAST(? AS date))", String.class,
+                month.plusMonths(i).atDay(1));
+        }
+    }
+
+    /**
+     * Month of the oldest attached partition, where the stored history starts.
+     */
+    public Optional<YearMonth> oldestPartitionMonth() {
+        return jdbcTemplate.queryForList(PARTITIONS, String.class, false).stream()
+            .map(SubmissionPartitionService::monthOf)
+            .flatMap(Optional::stream)
+            .min(Comparator.naturalOrder());
+    }
+
+    /**
+     * Detach, archive and drop the partitions before the retention window. Partitions left
+     * detached by an earlier failed run are archived as well.
+     */
+    public void applyRetention() {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+
+        // A concurrent detach interrupted by a crash leaves its partition half-detached
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS, String.class, true)) {
+            if (isExpired(partition, oldestKept)) {
+                jdbcTemplate.execute("ALTER TABLE code_submissions DETACH PARTITION " + partition + " FINALIZE");
+            }
+        }
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS, String.class, false)) {
+            if (isExpired(partition, oldestKept)) {
+                log.info("Detaching expired submission partition {}", partition);
+                jdbcTemplate.execute("ALTER TABLE code_submissions DETACH PARTITION " + partition + " CONCURRENTLY");
+            }
+        }
+
+        Set<String> codeHashes = new LinkedHashSet<>();
+        for (String table : expiredDetachedTables(oldestKept)) {
+            try {
+                archiveAndDrop(table, codeHashes);
+            } catch (IOException | RuntimeException e) {
+                // The table stays detached and is retried by the next run
+                log.warn("Cannot archive submission partition {}: {}", table, e.getMessage());
+            }
+        }
+        deleteUnreferencedBlobs(codeHashes, expiredDetachedTables(oldestKept));
+    }
+
+    private List<String> expiredDetachedTables(YearMonth oldestKept) {
+        return jdbcTemplate.queryForList(DETACHED_PARTITIONS, String.class).stream()
+            .filter(table -> isExpired(table, oldestKept))
+            .toList();
+    }
+
+    private void archiveAndDrop(String table, Set<String> codeHashes) throws IOException {
+        Files.createDirectories(archiveDirectory);
+        Path archive = archiveDirectory.resolve(table + ".ndjson.gz");
+        Path partial = archiveDirectory.resolve(table + ".ndjson.gz.part");
+        long count = export(table, partial, codeHashes);
+        Files.move(partial, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        jdbcTemplate.execute("DROP TABLE " + table);
+        archivedSubmissions.increment(count);
+        droppedPartitions.increment();
+        log.info("Archived {} submissions of {} to {} and dropped the partition", count, table, archive);
+    }
+
+    /**
+     * Write every row of {@code table} as one JSON line, code inlined, and sync the file.
+     */
+    private long export(String table, Path file, Set<String> codeHashes) throws IOException {
+        long[] count = {0};
+        try (FileOutputStream out = new FileOutputStream(file.toFile())) {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 1 << 16);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+            try {
+                // Cursor-based fetching needs a transaction
+                readOnlyTransaction.executeWithoutResult(status ->
+                    exportJdbcTemplate.query(String.format(EXPORT, table), rs -> {
+                        ArchivedSubmission row = ArchivedSubmission.of(rs);
+                        if (row.codeHash() != null) {
+                            codeHashes.add(row.codeHash());
+                        }
+                        try {
+                            writer.write(objectMapper.writeValueAsString(row));
+                            writer.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        count[0]++;
+                    }));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+            gzip.finish();
+            out.getChannel().force(true);
+        }
+        return count[0];
+    }
+
+    /**
+     * Delete the blobs of dropped partitions that no submission, nor any partition still
+     * waiting to be archived, refers to. A submission of the same code saved at this very
+     * moment can lose the race; its write fails and is retried (write-behind) or reported.
+     */
+    private void deleteUnreferencedBlobs(Set<String> codeHashes, List<String> pendingTables) {
+        if (codeHashes.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("DELETE FROM code_blobs b WHERE b.hash = ANY (CAST(? AS text[])) "
+            + "AND NOT EXISTS (SELECT 1 FROM code_submissions s WHERE s.code_hash = b.hash)");
+        for (String table : pendingTables) {
+            sql.append(" AND NOT EXISTS (SELECT 1 FROM ").append(table).append(" p WHERE p.code_hash = b.hash)");
+        }
+        List<String> hashes = new ArrayList<>(codeHashes);
+        int deleted = 0;
+        for (int from = 0; from < hashes.size(); from += BLOB_DELETE_BATCH) {
+            List<String> batch = hashes.subList(from, Math.min(hashes.size(), from + BLOB_DELETE_BATCH));
+            deleted += jdbcTemplate.update(sql.toString(), "{" + String.join(",", batch) + "}");
+        }
+        log.info("Deleted {} code blobs no longer referenced after archiving", deleted);
+    }
+
+    /**
+     * Whether {@code table} is a monthly partition entirely before {@code oldestKept}. Only names
+     * matching the partition pattern are ever used in SQL.
+     */
+    private static boolean isExpired(String table, YearMonth oldestKept) {
+        return monthOf(table).map(month -> month.isBefore(oldestKept)).orElse(false);
+    }
+
+    private static Optional<YearMonth> monthOf(String table) {
+        Matcher matcher = PARTITION_NAME.matcher(table);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+    }
+
+    /**
+     * Archive form of a submission: the review JSON is embedded as is and the code inlined, so
+     * an archive file does not depend on the database.
+     */
+    record ArchivedSubmission(long id, String owner, String author, String language, Integer score, String createdAt,
+                              Long baseSubmissionId, Boolean hedgeWon, String codeHash, String code,
+                              @JsonRawValue String review) {
+
+        static ArchivedSubmission of(ResultSet rs) throws SQLException {
+            String compression = rs.getString("compression");
+            String code = compression == null ? null
+                : CodeBlob.decode(compression, rs.getBytes("data"), rs.getInt("original_length"));
+            return new ArchivedSubmission(rs.getLong("id"), rs.getString("owner"), rs.getString("author"),
+                rs.getString("language"), rs.getObject("score", Integer.class),
+                rs.getTimestamp("created_at").toInstant().toString(),
+                rs.getObject("base_submission_id", Long.class), rs.getObject("hedge_won", Boolean.class),
+                rs.getString("code_hash"), code, rs.getString("review"));
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.CodeSubmission;
+import com.yourorg.aicode.repository.CodeSubmissionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists reviewed submissions. Ids are assigned up front from {@link SubmissionIdAllocator}.
+ * In write-behind mode ({@code review.persistence.write-behind}) a submission is appended to
+ * a local {@link SubmissionJournal} and queued, and the review returns without waiting for
+ * Postgres; the queue is flushed in JDBC batches once {@code batch-size} submissions are
+ * pending or every {@code flush-interval}. Otherwise submissions are written synchronously.
+ * <p>
+ * At most {@code max-pending} submissions are queued; beyond that they are written
+ * synchronously, so a database outage slows reviews down (or fails them) instead of filling
+ * the heap. If a batch fails while the database is reachable, it is split to find the rows it
+ * rejects, which are set aside in the journal's {@code rejected.log} so later flushes go on.
+ */
+@Service
+public class SubmissionWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionWriter.class);
+
+    private final CodeSubmissionRepository repository;
+    private final CodeBlobService codeBlobs;
+    private final SubmissionIdAllocator idAllocator;
+    private final ScoreRollupService scoreRollups;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor flushExecutor;
+
+    private final boolean writeBehind;
+    private final int batchSize;
+    private final int maxPending;
+    private final Path journalDirectory;
+    private final boolean journalFsync;
+
+    // Guarded by "this": queued submissions by id (also served to readers until flushed)
+    // and the journal segments holding them
+    private final Map<Long, CodeSubmission> pending = new LinkedHashMap<>();
+    private final List<Path> unflushedSegments = new ArrayList<>();
+    private SubmissionJournal journal;
+
+    private final Object flushLock = new Object();
+    private boolean lastFlushFailed;
+
+    private final Counter flushed;
+    private final Counter failedFlushes;
+    private final Counter overflows;
+    private final Counter rejected;
+    private final DistributionSummary flushSize;
+    private final Timer flushLatency;
+
+    public SubmissionWriter(CodeSubmissionRepository repository,
+                            CodeBlobService codeBlobs,
+                            SubmissionIdAllocator idAllocator,
+                            ScoreRollupService scoreRollups,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("submissionFlushExecutor") ThreadPoolExecutor flushExecutor,
+                            MeterRegistry meterRegistry,
+                            @Value("${review.persistence.write-behind:false}") boolean writeBehind,
+                            @Value("${review.persistence.batch-size:50}") int batchSize,
+                            @Value("${review.persistence.max-pending:10000}") int maxPending,
+                            @Value("${review.persistence.journal-dir:./data/submission-journal}") String journalDirectory,
+                            @Value("${review.persistence.journal-fsync:true}") boolean journalFsync) {
+        this.repository = repository;
+        this.codeBlobs = codeBlobs;
+        this.idAllocator = idAllocator;
+        this.scoreRollups = scoreRollups;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushExecutor = flushExecutor;
+        this.writeBehind = writeBehind;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPending = Math.max(this.batchSize, maxPending);
+        this.journalDirectory = Path.of(journalDirectory);
+        this.journalFsync = journalFsync;
+
+        this.flushed = meterRegistry.counter("review.persistence.flushed");
+        this.failedFlushes = meterRegistry.counter("review.persistence.flushes.failed");
+        this.overflows = meterRegistry.counter("review.persistence.overflows");
+        this.rejected = meterRegistry.counter("review.persistence.rejected");
+        this.flushSize = DistributionSummary.builder("review.persistence.flush.size")
+            .description("Submissions written per write-behind flush")
+            .register(meterRegistry);
+        this.flushLatency = Timer.builder("review.persistence.flush.latency")
+            .description("Time to write one write-behind batch, commit included")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        meterRegistry.gauge("review.persistence.pending", pending, this::pendingCount);
+    }
+
+    /**
+     * Replay journal segments left by a previous run that stopped before flushing them.
+     */
+    @PostConstruct
+    void recover() throws IOException {
+        if (!writeBehind) {
+            return;
+        }
+        journal = new SubmissionJournal(journalDirectory, journalFsync);
+        List<Path> segments = journal.segments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        List<CodeSubmission> replayed = new ArrayList<>();
+        for (Path segment : segments) {
+            replayed.addAll(journal.read(segment));
+        }
+        try {
+            persist(withoutStored(replayed));
+        } catch (RuntimeException e) {
+            if (!databaseReachable() || !persistIsolatingRejected(replayed)) {
+                // Keep the segments; they are replayed on the next start
+                log.warn("Cannot replay {} journaled submissions: {}", replayed.size(), e.getMessage());
+                return;
+            }
+        }
+        segments.forEach(journal::delete);
+        log.info("Recovered {} journaled submissions from {} segment(s)", replayed.size(), segments.size());
+    }
+
+    public void write(CodeSubmission submission) {
+        writeAll(List.of(submission));
+    }
+
+    /**
+     * Assign ids and persist {@code submissions}, or queue them in write-behind mode. The ids
+     * are set when this returns either way.
+     */
+    public void writeAll(List<CodeSubmission> submissions) {
+        for (CodeSubmission submission : submissions) {
+            if (submission.getId() == null) {
+                submission.setId(idAllocator.next());
+            }
+        }
+        if (!writeBehind) {
+            persist(submissions);
+            return;
+        }
+
+        int queued = 0;
+        boolean journaled = false;
+        synchronized (this) {
+            if (pending.size() + submissions.size() > maxPending) {
+                // Flushes are falling behind, most likely the database is down: apply backpressure
+                overflows.increment();
+            } else {
+                try {
+                    journal.append(submissions);
+                    submissions.forEach(s -> pending.put(s.getId(), s));
+                    queued = pending.size();
+                    journaled = true;
+                } catch (IOException e) {
+                    log.warn("Cannot journal submissions, writing them synchronously: {}", e.getMessage());
+                }
+            }
+        }
+        if (!journaled) {
+            persist(submissions);
+        } else if (queued >= batchSize) {
+            // At most one flush is queued behind the running one; further triggers are dropped
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    /**
+     * A submission that is queued but not flushed yet, so reads right after a review see it.
+     */
+    public synchronized Optional<CodeSubmission> findPending(Long id) {
+        return Optional.ofNullable(pending.get(id));
+    }
+
+    /**
+     * Write every queued submission in one transaction. If that fails while the database is
+     * down, the submissions stay queued (and journaled) and are retried by the next flush;
+     * otherwise the rows the database rejects are set aside and the rest is written.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<CodeSubmission> batch;
+            List<Path> segments;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                try {
+                    Path segment = journal.rotate();
+                    if (segment != null) {
+                        unflushedSegments.add(segment);
+                    }
+                } catch (IOException e) {
+                    log.warn("Cannot rotate submission journal: {}", e.getMessage());
+                }
+                segments = new ArrayList<>(unflushedSegments);
+            }
+
+            long start = System.nanoTime();
+            try {
+                // A failed flush may still have committed; do not insert those rows twice
+                persist(lastFlushFailed ? withoutStored(batch) : batch);
+                lastFlushFailed = false;
+            } catch (RuntimeException e) {
+                lastFlushFailed = true;
+                failedFlushes.increment();
+                if (!databaseReachable() || !persistIsolatingRejected(batch)) {
+                    log.warn("Flushing {} submissions failed, will retry: {}", batch.size(), e.getMessage());
+                    return;
+                }
+                lastFlushFailed = false;
+            }
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flushSize.record(batch.size());
+            flushed.increment(batch.size());
+
+            synchronized (this) {
+                batch.forEach(s -> pending.remove(s.getId()));
+                unflushedSegments.removeAll(segments);
+            }
+            segments.forEach(journal::delete);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (!writeBehind) {
+            return;
+        }
+        flush();
+        // Anything still pending stays in the journal for the next start
+        journal.close();
+    }
+
+    private void persist(List<CodeSubmission> submissions) {
+        if (submissions.isEmpty()) {
+            return;
+        }
+        // Blobs first: submissions reference them; with sequence ids the inserts are batched.
+        // Rollups are updated in the same transaction, so they count exactly the stored rows
+        transactionTemplate.executeWithoutResult(status -> {
+            codeBlobs.store(submissions);
+            repository.saveAll(submissions);
+            scoreRollups.record(submissions);
+        });
+    }
+
+    /**
+     * Write {@code batch} in ever smaller parts, setting aside the single submissions that
+     * still fail.
+     *
+     * @return false if the rejected submissions could not be set aside
+     */
+    private boolean persistIsolatingRejected(List<CodeSubmission> batch) {
+        List<CodeSubmission> failed = new ArrayList<>();
+        try {
+            persistOrSplit(withoutStored(batch), failed);
+        } catch (RuntimeException e) {
+            // The database went away meanwhile
+            return false;
+        }
+        if (failed.isEmpty()) {
+            return true;
+        }
+        try {
+            journal.reject(failed);
+        } catch (IOException e) {
+            log.warn("Cannot set aside {} rejected submissions: {}", failed.size(), e.getMessage());
+            return false;
+        }
+        rejected.increment(failed.size());
+        log.error("Database rejected submissions {}; moved to {}", failed.stream().map(CodeSubmission::getId).toList(),
+            journalDirectory.resolve("rejected.log"));
+        return true;
+    }
+
+    private void persistOrSplit(List<CodeSubmission> submissions, List<CodeSubmission> failed) {
+        try {
+            persist(submissions);
+        } catch (RuntimeException e) {
+            if (submissions.size() == 1) {
+                log.debug("Submission {} rejected: {}", submissions.get(0).getId(), e.getMessage());
+                failed.addAll(submissions);
+                return;
+            }
+            int half = submissions.size() / 2;
+            persistOrSplit(submissions.subList(0, half), failed);
+            persistOrSplit(submissions.subList(half, submissions.size()), failed);
+        }
+    }
+
+    private boolean databaseReachable() {
+        try {
+            repository.existsById(0L);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private List<CodeSubmission> withoutStored(List<CodeSubmission> submissions) {
+        Set<Long> stored = new HashSet<>();
+        repository.findAllById(submissions.stream().map(CodeSubmission::getId).toList())
+            .forEach(s -> stored.add(s.getId()));
+        return submissions.stream().filter(s -> !stored.contains(s.getId())).toList();
+    }
+
+    private synchronized int pendingCount(Map<Long, CodeSubmission> queue) {
+        return queue.size();
+    }
+}
@@ -0,0 +1,228 @@
+-- Runs after Hibernate's ddl-auto=update (spring.jpa.defer-datasource-initialization=true).
+-- Every statement must be idempotent. Statements end with ^; (spring.sql.init.separator) so that
+-- PL/pgSQL blocks can contain semicolons.
+
+-- Submission ids come from this pooled sequence (SubmissionIdAllocator); it is no longer
+-- declared on the entity, so Hibernate does not create it.
+CREATE SEQUENCE IF NOT EXISTS code_submissions_seq START WITH 1 INCREMENT BY 50^;
+
+-- code_submissions switched from IDENTITY to a pooled sequence; make sure the sequence
+-- never hands out ids that already exist (ids are allocated as (value - 50, value] per fetch).
+SELECT setval('code_submissions_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 1) FROM code_submissions),
+                       (SELECT last_value FROM code_submissions_seq)))^;
+
+-- code_submissions.code moved to the deduplicated code_blobs table (referenced by code_hash).
+-- Copy legacy code over uncompressed ('none'; new blobs are compressed on write), then drop
+-- the column. The legacy column is oid (large object) or text depending on when it was created.
+DO $$
+DECLARE
+    code_type text;
+BEGIN
+    SELECT data_type INTO code_type
+      FROM information_schema.columns
+     WHERE table_name = 'code_submissions' AND column_name = 'code';
+    IF code_type IS NULL THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format($migrate$
+        WITH legacy AS (
+            SELECT id, %s AS bytes FROM code_submissions WHERE code IS NOT NULL AND code_hash IS NULL
+        ), hashed AS (
+            SELECT id, bytes, encode(sha256(bytes), 'hex') AS hash FROM legacy
+        ), blobs AS (
+            INSERT INTO code_blobs (hash, compression, data, original_length, created_at)
+            SELECT DISTINCT ON (hash) hash, 'none', bytes, length(bytes), now() FROM hashed
+            ON CONFLICT (hash) DO NOTHING
+        )
+        UPDATE code_submissions s SET code_hash = h.hash FROM hashed h WHERE s.id = h.id
+    $migrate$, CASE WHEN code_type = 'oid' THEN 'lo_get(code)' ELSE 'convert_to(code, ''UTF8'')' END);
+
+    IF code_type = 'oid' THEN
+        PERFORM lo_unlink(code) FROM code_submissions WHERE code IS NOT NULL;
+    END IF;
+    ALTER TABLE code_submissions DROP COLUMN code;
+END
+$$^;
+
+-- code_submissions.ai_feedback became jsonb (the review JSON, for AI and fallback reviews).
+-- Legacy rows hold JSON text, or "score=...; issues=[...]" from the old fallback; those are
+-- wrapped as a local review without findings. The legacy column is oid or text.
+DO $$
+DECLARE
+    feedback_type text;
+    legacy record;
+BEGIN
+    SELECT data_type INTO feedback_type
+      FROM information_schema.columns
+     WHERE table_name = 'code_submissions' AND column_name = 'ai_feedback';
+    IF feedback_type IS NULL OR feedback_type = 'jsonb' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE code_submissions ADD COLUMN ai_feedback_jsonb jsonb;
+    FOR legacy IN EXECUTE format(
+        'SELECT id, score, %s AS feedback FROM code_submissions WHERE ai_feedback IS NOT NULL',
+        CASE WHEN feedback_type = 'oid' THEN 'convert_from(lo_get(ai_feedback), ''UTF8'')' ELSE 'ai_feedback' END)
+    LOOP
+        BEGIN
+            UPDATE code_submissions SET ai_feedback_jsonb = legacy.feedback::jsonb WHERE id = legacy.id;
+        EXCEPTION WHEN invalid_text_representation THEN
+            UPDATE code_submissions
+               SET ai_feedback_jsonb = jsonb_build_object('score', legacy.score, 'comments', legacy.feedback,
+                                                          'findings', '[]'::jsonb, 'source', 'local')
+             WHERE id = legacy.id;
+        END;
+    END LOOP;
+
+    IF feedback_type = 'oid' THEN
+        PERFORM lo_unlink(ai_feedback) FROM code_submissions WHERE ai_feedback IS NOT NULL;
+    END IF;
+    ALTER TABLE code_submissions DROP COLUMN ai_feedback;
+    ALTER TABLE code_submissions RENAME COLUMN ai_feedback_jsonb TO ai_feedback;
+END
+$$^;
+
+-- Review search (GET /api/reviews/search). Needs the pg_trgm extension; creating it requires a
+-- role allowed to do so (pg_trgm is a trusted extension since PostgreSQL 13).
+CREATE EXTENSION IF NOT EXISTS pg_trgm^;
+
+-- Searchable review text: summary, comments and issues of the review JSON. Generated, so it
+-- and its indexes are maintained by every insert.
+ALTER TABLE code_submissions ADD COLUMN IF NOT EXISTS review_text text GENERATED ALWAYS AS (
+    coalesce(ai_feedback ->> 'summary', '') || E'\n' ||
+    coalesce(ai_feedback ->> 'comments', '') || E'\n' ||
+    coalesce(jsonb_path_query_array(ai_feedback, '$.issues[*]')::text, '')) STORED^;
+
+-- code_submissions is partitioned by month on created_at (UTC). SubmissionPartitionService
+-- creates upcoming partitions and detaches, archives and drops expired ones.
+CREATE OR REPLACE FUNCTION code_submissions_create_partition(for_month date) RETURNS text
+LANGUAGE plpgsql AS $$
+DECLARE
+    first_day date := date_trunc('month', for_month)::date;
+    partition_name text := format('code_submissions_p%s', to_char(first_day, 'YYYYMM'));
+BEGIN
+    -- Mostly-appended partitions: vacuum after 5% new rows keeps the visibility map current,
+    -- which the index-only scans of the history list depend on
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF code_submissions FOR VALUES FROM (%L) TO (%L) '
+                   'WITH (autovacuum_vacuum_insert_scale_factor = 0.05)',
+                   partition_name, first_day || ' 00:00:00+00', (first_day + interval '1 month')::date || ' 00:00:00+00');
+    RETURN partition_name;
+END
+$$^;
+
+-- One-time conversion of the plain table: move its rows into monthly partitions (through two
+-- months ahead) and drop it. The primary key has to include the partition key; ids stay unique
+-- through code_submissions_seq. Indexes are (re)created on the partitioned table below.
+DO $$
+DECLARE
+    this_month date := date_trunc('month', now() AT TIME ZONE 'UTC')::date;
+    next_month date;
+    columns text;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'code_submissions'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE code_submissions RENAME TO code_submissions_unpartitioned;
+    CREATE TABLE code_submissions (LIKE code_submissions_unpartitioned INCLUDING DEFAULTS INCLUDING GENERATED)
+        PARTITION BY RANGE (created_at);
+    ALTER TABLE code_submissions ALTER COLUMN created_at SET NOT NULL;
+    ALTER TABLE code_submissions ADD PRIMARY KEY (id, created_at);
+
+    -- One month of slack below the oldest row covers time zone differences of legacy timestamps
+    next_month := LEAST(this_month,
+                        (SELECT date_trunc('month', min(created_at))::date - interval '1 month'
+                           FROM code_submissions_unpartitioned));
+    WHILE next_month <= this_month + interval '2 months' LOOP
+        PERFORM code_submissions_create_partition(next_month);
+        next_month := next_month + interval '1 month';
+    END LOOP;
+
+    SELECT string_agg(quote_ident(column_name), ', ' ORDER BY ordinal_position) INTO columns
+      FROM information_schema.columns
+     WHERE table_name = 'code_submissions_unpartitioned' AND is_generated = 'NEVER';
+    -- Rows without created_at predate it being set on every submission
+    UPDATE code_submissions_unpartitioned SET created_at = now() WHERE created_at IS NULL;
+    EXECUTE format('INSERT INTO code_submissions (%1$s) SELECT %1$s FROM code_submissions_unpartitioned', columns);
+    DROP TABLE code_submissions_unpartitioned;
+END
+$$^;
+
+-- Containment lookups on findings, e.g. ai_feedback -> 'findings' @> '[{"ruleId": "python.eval"}]'
+CREATE INDEX IF NOT EXISTS idx_code_submissions_findings
+    ON code_submissions USING gin ((ai_feedback -> 'findings') jsonb_path_ops)^;
+
+-- Review history (GET /api/reviews): keyset pages on (owner, created_at, id), newest first. The
+-- listed columns are included so pages are index-only scans and never touch the table.
+CREATE INDEX IF NOT EXISTS idx_code_submissions_owner_history
+    ON code_submissions (owner, created_at DESC, id DESC)
+    INCLUDE (author, language, score, base_submission_id)^;
+
+-- Author/time filters of the finding statistics
+CREATE INDEX IF NOT EXISTS idx_code_submissions_author_created_at
+    ON code_submissions (author, created_at)^;
+
+-- Lets blob cleanup after dropping a partition check whether a blob is still referenced
+CREATE INDEX IF NOT EXISTS idx_code_submissions_code_hash ON code_submissions (code_hash)^;
+
+-- Full-text search on the review text
+CREATE INDEX IF NOT EXISTS idx_code_submissions_review_fts
+    ON code_submissions USING gin (to_tsvector('english', review_text))^;
+
+-- Fuzzy and substring matches (word similarity, ILIKE) on the same text
+CREATE INDEX IF NOT EXISTS idx_code_submissions_review_trgm
+    ON code_submissions USING gin (review_text gin_trgm_ops)^;
+
+-- Code is stored compressed, so its search vector is computed from the plain text when the blob
+-- is inserted (CodeBlobRepository.insertIfAbsent). The 'simple' configuration keeps identifiers
+-- as they are instead of stemming them as English.
+ALTER TABLE code_blobs ADD COLUMN IF NOT EXISTS code_tsv tsvector^;
+
+-- Blobs copied from the legacy code column are stored uncompressed and can be indexed here;
+-- compressed blobs written before code_tsv existed stay unsearchable by code.
+UPDATE code_blobs SET code_tsv = to_tsvector('simple', left(convert_from(data, 'UTF8'), 200000))
+ WHERE code_tsv IS NULL AND compression = 'none'^;
+
+CREATE INDEX IF NOT EXISTS idx_code_blobs_code_fts ON code_blobs USING gin (code_tsv)^;
+
+-- Score rollups per ISO week (Monday, UTC), author and language; null author/language are ''.
+-- Updated in the transaction that stores the submissions (ScoreRollupService). histogram counts
+-- scores in the fixed buckets 0-9, 10-19, ..., 90-100.
+CREATE TABLE IF NOT EXISTS score_rollups (
+    week        date     NOT NULL,
+    author      text     NOT NULL,
+    language    text     NOT NULL,
+    submissions bigint   NOT NULL,
+    score_sum   bigint   NOT NULL,
+    histogram   bigint[] NOT NULL,
+    PRIMARY KEY (week, author, language)
+)^;
+
+-- Rollup rebuilds scan one week of created_at at a time; rows are appended roughly in
+-- created_at order, so a BRIN index covers this at a fraction of a btree's size.
+CREATE INDEX IF NOT EXISTS idx_code_submissions_created_at_brin
+    ON code_submissions USING brin (created_at)^;
+
+-- SimHash of the normalized code (NearDuplicateIndex); rows stored before it existed are filled
+-- in at startup, which this index keeps cheap to find once they are done
+ALTER TABLE code_submissions ADD COLUMN IF NOT EXISTS code_simhash bigint^;
+
+CREATE INDEX IF NOT EXISTS idx_code_submissions_simhash_missing
+    ON code_submissions (id) WHERE code_simhash IS NULL^;
+
+-- Fingerprint version, kept as the column comment. When CodeFingerprint's normalization changes,
+-- bump it: stored fingerprints are cleared once and recomputed by the startup backfill.
+-- v2: comment syntax by language
+DO $$
+BEGIN
+    IF col_description('code_submissions'::regclass,
+                       (SELECT attnum FROM pg_attribute
+                         WHERE attrelid = 'code_submissions'::regclass AND attname = 'code_simhash'))
+       IS DISTINCT FROM 'fingerprint v2' THEN
+        UPDATE code_submissions SET code_simhash = NULL WHERE code_simhash IS NOT NULL;
+        COMMENT ON COLUMN code_submissions.code_simhash IS 'fingerprint v2';
+    END IF;
+END
+$$^;
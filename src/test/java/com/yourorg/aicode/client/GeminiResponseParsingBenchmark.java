@@ -0,0 +1,169 @@
+package com.yourorg.aicode.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import com.yourorg.aicode.model.dto.ReviewResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Per-review cost of reading a Gemini response, served by a local HTTP server: the former
+ * pipeline (body as a String, JSON tree, fence stripping with substrings, binding, then
+ * serializing again for storage) against {@link GeminiClient#generateContent} binding the
+ * candidate text straight from the streaming parser. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm} (bytes allocated per review).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GeminiResponseParsingBenchmark {
+
+    private static final String REQUEST = "{\"contents\":[{\"parts\":[{\"text\":\"Review this\"}]}]}";
+
+    // Findings in the model's review; 2000 gives a response of about 300 KB
+    @Param({"20", "2000"})
+    int issues;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpServer server;
+    private HttpClient httpClient;
+    private GeminiClient geminiClient;
+    private URI uri;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] response = geminiResponse(issues);
+        // Otherwise small responses wait for delayed ACKs and the timings measure those
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream request = exchange.getRequestBody()) {
+                request.readAllBytes();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        uri = URI.create(baseUrl + "/models/bench:generateContent?key=bench");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GeminiCircuitBreaker circuitBreaker = new GeminiCircuitBreaker(meterRegistry, false, 50, 10, 0.5,
+            Duration.ofSeconds(20), 0.8, Duration.ofSeconds(30), 3);
+        geminiClient = new GeminiClient(meterRegistry, circuitBreaker, baseUrl, "bench", "bench",
+            Duration.ofSeconds(5), Duration.ofSeconds(30), 4, Duration.ofSeconds(10), 2,
+            false, 0.95, Duration.ofSeconds(2), false, 1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        geminiClient.shutdown();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public void bufferedTree(Blackhole blackhole) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(REQUEST, StandardCharsets.UTF_8))
+            .build();
+        String body = httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+
+        JsonNode root = objectMapper.readTree(body);
+        String content = root.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText();
+        content = content.trim();
+        if (content.startsWith("```")) {
+            int idx = content.indexOf('\n');
+            if (idx > 0) content = content.substring(idx + 1);
+            if (content.endsWith("```")) content = content.substring(0, content.length() - 3).trim();
+        }
+        ReviewResponse review = objectMapper.readerFor(ReviewResponse.class).readValue(content);
+        // Stored as aiFeedback
+        blackhole.consume(objectMapper.writeValueAsString(review));
+    }
+
+    @Benchmark
+    public void streamingBind(Blackhole blackhole) throws IOException {
+        blackhole.consume(geminiClient.generateContent(REQUEST, GeminiCall.withBudget(Duration.ofSeconds(30)),
+            (text, offset, length) -> {
+                int start = offset;
+                int end = offset + length;
+                // Skip the opening fence line and the closing fence, as CodeReviewService does
+                if (text[start] == '`') {
+                    while (text[start] != '\n') start++;
+                    start++;
+                    while (text[end - 1] != '`') end--;
+                    end -= 3;
+                }
+                ReviewResponse review;
+                try (JsonParser parser = objectMapper.getFactory().createParser(text, start, end - start)) {
+                    review = objectMapper.readValue(parser, ReviewResponse.class);
+                }
+                // The model's JSON is kept as is for aiFeedback
+                return new Object[]{review, new String(text, start, end - start)};
+            }));
+    }
+
+    private byte[] geminiResponse(int issueCount) throws IOException {
+        ReviewResponse review = new ReviewResponse();
+        review.setScore(72);
+        review.setSummary("Mostly solid; a few resource handling and validation problems.");
+        review.setComments("Consider closing streams in try-with-resources and validating inputs early.");
+        review.setIssues(IntStream.range(0, issueCount)
+            .mapToObj(i -> "Line " + (i * 3 + 1) + ": `reader` is not closed when `parse` throws an exception")
+            .toArray(String[]::new));
+        review.setSuggestions(IntStream.range(0, issueCount / 2)
+            .mapToObj(i -> "Extract the validation in block " + i + " into a separate method")
+            .toArray(String[]::new));
+        review.setBestPractices(new String[]{"Write unit tests", "Prefer immutable value objects"});
+        review.setFixCode("public class Parser {\n" + "    // ...\n".repeat(issueCount) + "}\n");
+        String text = "```json\n" + objectMapper.writeValueAsString(review) + "\n```";
+
+        ObjectNode part = objectMapper.createObjectNode().put("text", text);
+        ObjectNode candidate = objectMapper.createObjectNode();
+        candidate.putObject("content").put("role", "model").putArray("parts").add(part);
+        candidate.put("finishReason", "STOP");
+        ObjectNode response = objectMapper.createObjectNode();
+        response.putArray("candidates").add(candidate);
+        response.putObject("usageMetadata").put("promptTokenCount", 1200).put("candidatesTokenCount", text.length() / 4);
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,122 @@
+package com.yourorg.aicode.security;
+
+import com.yourorg.aicode.model.User;
+import com.yourorg.aicode.repository.RevokedAccessTokenRepository;
+import com.yourorg.aicode.repository.UserRepository;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Per-request cost of {@link JwtAuthenticationFilter}: verifying the token alone, the full filter
+ * with the principal served from {@link PrincipalCache}, and the full filter loading the user on
+ * every request as it did before the cache. The user repository is a mock that waits
+ * {@code loadMicros} per lookup in place of a database round trip. Run with {@code -t 8} to see
+ * contention on the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    // Simulated user lookup; 0 leaves only the mapping to UserDetails
+    @Param({"0", "250"})
+    long loadMicros;
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+            "MySecretKeyForJWTTokenGenerationAndValidationPleaseChangeInProduction");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 10_800_000L);
+        tokenProvider.init();
+        token = tokenProvider.generateTokenFromEmail(EMAIL);
+
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("{noop}bench");
+        long loadNanos = TimeUnit.MICROSECONDS.toNanos(loadMicros);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByEmail(EMAIL)).thenAnswer(invocation -> {
+            if (loadNanos > 0) {
+                LockSupport.parkNanos(loadNanos);
+            }
+            return Optional.of(user);
+        });
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userDetailsService, "adminEmails", new String[0]);
+
+        AccessTokenRevocations revocations =
+            new AccessTokenRevocations(Mockito.mock(RevokedAccessTokenRepository.class), 10_800_000L);
+        revocations.load();
+
+        cachedFilter = filter(userDetailsService, revocations, new PrincipalCache(10_000, Duration.ofMinutes(5)));
+        // Entries expire at once: every request loads the user
+        uncachedFilter = filter(userDetailsService, revocations, new PrincipalCache(10_000, Duration.ZERO));
+    }
+
+    @Benchmark
+    public Object parseToken() {
+        return tokenProvider.parseToken(token);
+    }
+
+    @Benchmark
+    public Object cachedPrincipal() throws Exception {
+        return authenticate(cachedFilter);
+    }
+
+    @Benchmark
+    public Object loadedPrincipal() throws Exception {
+        return authenticate(uncachedFilter);
+    }
+
+    private Object authenticate(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reviews");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), CHAIN);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    private JwtAuthenticationFilter filter(CustomUserDetailsService userDetailsService,
+                                           AccessTokenRevocations revocations, PrincipalCache principalCache) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "customUserDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+        ReflectionTestUtils.setField(filter, "accessTokenRevocations", revocations);
+        return filter;
+    }
+}
@@ -0,0 +1,121 @@
+package com.yourorg.aicode.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class LineDiffTest {
+
+    private static final int MAX_EDITS = 2000;
+
+    @Test
+    void identicalTextsHaveNoEdits() {
+        String[] lines = LineDiff.lines("a\nb\nc");
+        assertEquals(List.of(), LineDiff.compute(lines, lines, MAX_EDITS));
+    }
+
+    @Test
+    void changedLineIsOneEdit() {
+        List<LineDiff.Edit> edits = LineDiff.compute(LineDiff.lines("a\nb\nc\nd"), LineDiff.lines("a\nB\nc\nd"), MAX_EDITS);
+        assertEquals(List.of(new LineDiff.Edit(1, 2, 1, 2)), edits);
+    }
+
+    @Test
+    void roundTrips() {
+        assertRoundTrip("a\nb\nc", "a\nb\nc\nd");
+        assertRoundTrip("a\nb\nc", "z\na\nb\nc");
+        assertRoundTrip("a\nb\nc", "a\nc");
+        assertRoundTrip("a\nb\nc", "");
+        assertRoundTrip("", "a\nb");
+        assertRoundTrip("a\nb\nc\nd\ne\nf\ng\nh\ni\nj\nk\nl", "a\nB\nc\nd\ne\nf\ng\nh\ni\nj\nK\nl\nm");
+        assertRoundTrip("x\ny\nx\ny\nx", "y\nx\ny\nx\ny");
+        assertRoundTrip("a\nb\n", "a\nc\n");
+    }
+
+    @Test
+    void randomEditsRoundTrip() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            List<String> base = IntStream.range(0, random.nextInt(60))
+                .mapToObj(i -> "line " + random.nextInt(8))
+                .collect(Collectors.toCollection(ArrayList::new));
+            List<String> changed = new ArrayList<>(base);
+            for (int e = random.nextInt(10); e > 0; e--) {
+                int at = changed.isEmpty() ? 0 : random.nextInt(changed.size());
+                switch (random.nextInt(3)) {
+                    case 0 -> changed.add(at, "new " + random.nextInt(8));
+                    case 1 -> {
+                        if (!changed.isEmpty()) changed.remove(at);
+                    }
+                    default -> {
+                        if (!changed.isEmpty()) changed.set(at, "changed " + random.nextInt(8));
+                    }
+                }
+            }
+            assertRoundTrip(String.join("\n", base), String.join("\n", changed));
+        }
+    }
+
+    @Test
+    void rewriteBeyondMaxEditsGivesUp() {
+        String[] base = numbered("base", 5000);
+        String[] rewritten = numbered("new", 5000);
+        assertTimeoutPreemptively(java.time.Duration.ofSeconds(5),
+            () -> assertNull(LineDiff.compute(base, rewritten, MAX_EDITS)));
+    }
+
+    @Test
+    void editsUpToMaxEditsAreFound() {
+        String[] base = numbered("line", 3000);
+        String[] changed = base.clone();
+        // Each replaced line is one deletion and one insertion
+        for (int i = 0; i < 1000; i++) {
+            changed[i * 3] = "changed " + i;
+        }
+        assertNotNull(LineDiff.compute(base, changed, MAX_EDITS));
+        assertNull(LineDiff.compute(base, changed, MAX_EDITS - 1));
+    }
+
+    @Test
+    void pureInsertionBeyondMaxEditsGivesUp() {
+        assertNull(LineDiff.compute(new String[0], numbered("line", MAX_EDITS + 1), MAX_EDITS));
+    }
+
+    @Test
+    void applyRejectsMismatchedContext() {
+        String diff = "@@ -1,2 +1,2 @@\n a\n-b\n+c\n";
+        assertEquals("a\nc", LineDiff.apply("a\nb", diff));
+        assertThrows(IllegalArgumentException.class, () -> LineDiff.apply("x\nb", diff));
+    }
+
+    @Test
+    void applyRejectsHunksOutOfOrder() {
+        String diff = "@@ -3,1 +3,1 @@\n-c\n+C\n@@ -1,1 +1,1 @@\n-a\n+A\n";
+        assertThrows(IllegalArgumentException.class, () -> LineDiff.apply("a\nb\nc", diff));
+    }
+
+    private static void assertRoundTrip(String base, String changed) {
+        String[] a = LineDiff.lines(base);
+        String[] b = LineDiff.lines(changed);
+        List<LineDiff.Edit> edits = LineDiff.compute(a, b, MAX_EDITS);
+        assertNotNull(edits);
+        for (int context : new int[]{0, 3}) {
+            String diff = LineDiff.unified(a, b, edits, context);
+            assertEquals(changed, LineDiff.apply(base, diff), () -> "context " + context + ", diff:\n" + diff);
+        }
+    }
+
+    private static String[] numbered(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> prefix + " " + i).toArray(String[]::new);
+    }
+}
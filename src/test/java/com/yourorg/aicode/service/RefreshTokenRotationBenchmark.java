@@ -0,0 +1,92 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.AiCodeReviewerApplication;
+import com.yourorg.aicode.model.User;
+import com.yourorg.aicode.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes per second under concurrency: each benchmark thread keeps rotating its own login's
+ * refresh token through {@link RefreshTokenService#rotate}, as clients refreshing in parallel do.
+ * Boots the application without the web layer against the database in
+ * {@code SPRING_DATASOURCE_URL}; use a scratch database, every rotation inserts a token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RefreshTokenRotationBenchmark {
+
+    private static final String EMAIL = "bench-refresh@example.com";
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        ConfigurableApplicationContext context;
+        RefreshTokenService refreshTokenService;
+        Long userId;
+
+        @Setup
+        public void setUp() {
+            context = new SpringApplicationBuilder(AiCodeReviewerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                    "spring.main.banner-mode=off",
+                    "logging.level.root=WARN",
+                    "review.near-duplicate.enabled=false")
+                .run();
+            refreshTokenService = context.getBean(RefreshTokenService.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            userId = userRepository.findByEmail(EMAIL).orElseGet(() -> {
+                User user = new User();
+                user.setFirstName("Bench");
+                user.setLastName("Refresh");
+                user.setEmail(EMAIL);
+                user.setProvider(User.AuthProvider.LOCAL);
+                return userRepository.save(user);
+            }).getId();
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Login {
+
+        String refreshToken;
+
+        @Setup
+        public void setUp(Application application) {
+            refreshToken = application.refreshTokenService
+                .createRefreshToken(application.userId, "127.0.0.1", "bench").getToken();
+        }
+    }
+
+    @Benchmark
+    public String rotate(Application application, Login login) {
+        login.refreshToken = application.refreshTokenService
+            .rotate(login.refreshToken, "127.0.0.1", "bench").getToken();
+        return login.refreshToken;
+    }
+}
@@ -0,0 +1,46 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.model.dto.ReviewResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReviewMergerTest {
+
+    @Test
+    void localFindingsSkipNullModelEntries() {
+        ReviewResponse review = review(70, new String[]{"Line 2: unused variable", null},
+            new String[]{null, "Remove it"});
+        LocalRuleEngine.Finding finding = new LocalRuleEngine.Finding("python.eval", "eval(", 4,
+            "eval() on untrusted input", "Use ast.literal_eval", 20, 1);
+
+        ReviewResponse merged = ReviewMerger.withLocalFindings(review, List.of(finding));
+
+        assertEquals(List.of("Line 2: unused variable", "Line 4: eval() on untrusted input"),
+            List.of(merged.getIssues()));
+        assertEquals(List.of("Remove it", "Use ast.literal_eval"), List.of(merged.getSuggestions()));
+        assertEquals(2, merged.getFindings().size());
+    }
+
+    @Test
+    void mergeSkipsNullModelEntries() {
+        ReviewResponse first = review(60, new String[]{null, "Line 1: missing check"}, null);
+        ReviewResponse second = review(80, new String[]{"Line 1: missing check."}, new String[]{null});
+
+        ReviewResponse merged = ReviewMerger.merge(List.of(first, second), List.of(1, 3));
+
+        assertEquals(75, merged.getScore());
+        assertEquals(List.of("Line 1: missing check"), List.of(merged.getIssues()));
+        assertEquals(List.of(), List.of(merged.getSuggestions()));
+    }
+
+    private static ReviewResponse review(int score, String[] issues, String[] suggestions) {
+        ReviewResponse review = new ReviewResponse();
+        review.setScore(score);
+        review.setIssues(issues);
+        review.setSuggestions(suggestions);
+        return review;
+    }
+}
@@ -0,0 +1,140 @@
+package com.yourorg.aicode.service;
+
+import com.yourorg.aicode.AiCodeReviewerApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReviewSearchService#search} over one million synthetic submissions (100 owners, so
+ * 10,000 per owner, spread over the last 60 days). Boots the application without the web layer
+ * against the database in {@code SPRING_DATASOURCE_URL}, which needs pg_trgm; use a scratch
+ * database, the corpus is left in place so later runs skip seeding (a few minutes).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ReviewSearchBenchmark {
+
+    private static final int SUBMISSIONS = 1_000_000;
+    private static final int OWNERS = 100;
+    private static final int BLOBS = 20_000;
+    private static final int CHUNK = 100_000;
+    private static final String OWNER = "bench-user-7@example.com";
+
+    // A stemmed phrase, a misspelling only the trigram match finds, and an identifier in the code
+    @Param({"sql injection", "resorce leak", "executeQuery"})
+    String query;
+
+    private ConfigurableApplicationContext context;
+    private ReviewSearchService searchService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AiCodeReviewerApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                // Nothing to fingerprint or roll up for a search benchmark
+                "review.near-duplicate.enabled=false",
+                "review.analytics.rebuild-on-startup=false")
+            .run();
+        searchService = context.getBean(ReviewSearchService.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object search() {
+        return searchService.search(OWNER, query, null, 30, 0, 20);
+    }
+
+    @Benchmark
+    public Object searchLanguage() {
+        return searchService.search(OWNER, query, "java", 30, 0, 20);
+    }
+
+    @Benchmark
+    public Object searchLastPage() {
+        return searchService.search(OWNER, query, null, 60, ReviewSearchService.MAX_RESULTS / 20 - 1, 20);
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        Integer existing = jdbc.queryForObject(
+            "SELECT count(*) FROM code_submissions WHERE owner LIKE 'bench-user-%'", Integer.class);
+        if (existing != null && existing >= SUBMISSIONS) {
+            return;
+        }
+        jdbc.update("DELETE FROM code_submissions WHERE owner LIKE 'bench-user-%'");
+        jdbc.queryForList("SELECT code_submissions_create_partition(m::date) FROM generate_series("
+            + "date_trunc('month', now() - interval '60 days'), now(), interval '1 month') m");
+
+        jdbc.update("INSERT INTO code_blobs (hash, compression, data, original_length, created_at, code_tsv) "
+            + "SELECT encode(sha256(convert_to(code, 'UTF8')), 'hex'), 'none', convert_to(code, 'UTF8'), "
+            + "       octet_length(code), now(), to_tsvector('simple', code) "
+            + "  FROM (SELECT " + code("b") + " AS code FROM generate_series(0, ? - 1) b) c "
+            + "ON CONFLICT (hash) DO NOTHING", BLOBS);
+
+        for (int from = 0; from < SUBMISSIONS; from += CHUNK) {
+            jdbc.update("""
+                INSERT INTO code_submissions (id, owner, author, language, ai_feedback, score, created_at, code_hash)
+                SELECT nextval('code_submissions_seq'), 'bench-user-' || (i % ?) || '@example.com', 'Bench',
+                       (ARRAY['java', 'python', 'javascript', 'go'])[1 + i % 4],
+                       jsonb_build_object(
+                           'source', 'ai',
+                           'score', 40 + i % 60,
+                           'summary', (ARRAY[
+                               'Builds SQL by string concatenation, which allows SQL injection.',
+                               'The file stream is never closed: a resource leak on every call.',
+                               'Unbounded cache that grows with every distinct id.',
+                               'Readable loop; prefer a logger over System.out.'])[1 + (i / 4) % 4],
+                           'comments', 'Reviewed revision ' || i || ' of the service.',
+                           'issues', jsonb_build_array(
+                               (ARRAY['Line 3: user input reaches the query unescaped',
+                                      'Line 3: stream is not closed when read throws',
+                                      'Line 3: entries are never evicted',
+                                      'Line 3: output in a hot loop'])[1 + (i / 4) % 4],
+                               'Line 1: class name does not describe its purpose')),
+                       40 + i % 60,
+                       now() - make_interval(secs => (i::bigint * 5189) % (60 * 86400)),
+                       encode(sha256(convert_to(:code, 'UTF8')), 'hex')
+                  FROM generate_series(?, ?) i
+                """.replace(":code", code("i % " + BLOBS)), OWNERS, from, Math.min(SUBMISSIONS, from + CHUNK) - 1);
+        }
+        jdbc.execute("ANALYZE code_submissions");
+        jdbc.execute("ANALYZE code_blobs");
+    }
+
+    // SQL expression for the text of synthetic blob number {@code blob}; one of four snippets
+    private static String code(String blob) {
+        return "format(E'class BenchService%s {\\n    void run(Connection c, String id) throws Exception {\\n        %s\\n    }\\n}\\n', "
+            + blob + ", (ARRAY["
+            + "'ResultSet rows = executeQuery(c, ''SELECT * FROM users WHERE id = '' + id);', "
+            + "'InputStream in = new FileInputStream(id); in.read();', "
+            + "'Map<String, Object> cache = new HashMap<>(); cache.put(id, c);', "
+            + "'for (int j = 0; j < 10; j++) { System.out.println(id + j); }'])[1 + (" + blob + ") % 4])";
+    }
+}